@@ -0,0 +1,433 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * AnswerAnomalyDetector class - streaming anti-cheat checks on the answer stream
+ * Quiz code reports session starts, graded answers and session ends; the
+ * checks run on a background pipeline and raise flags for review:
+ * - FAST_ANSWERS: several correct answers faster than the question can be read
+ * - DUPLICATE_SEQUENCE: a run of answers, including wrong ones, identical to
+ *   that of another player who started at about the same time (matched by a
+ *   rolling hash over the last few answers)
+ * - SCORE_OUTLIER: points per second far above the category's norm
+ *
+ * The pipeline has two stages, analysis and reporting, joined by bounded
+ * queues. Reporting blocks analysis when flags back up, and analysis backs up
+ * into the event queue; reporting methods never wait for it. When the event
+ * queue is full, events are dropped and counted instead, so the answer path
+ * pays only for a queue offer.
+ */
+public class AnswerAnomalyDetector implements AutoCloseable {
+    private static final int EVENT_QUEUE_CAPACITY = 16_384;
+    private static final int FLAG_QUEUE_CAPACITY = 256;
+    private static final int ANALYSIS_BATCH_SIZE = 256;
+    private static final int RECENT_FLAG_CAPACITY = 100;
+    // Sessions that never end are forgotten once this many are open
+    private static final int MAX_OPEN_SESSIONS = 100_000;
+
+    // A correct answer is implausibly fast below this reading time
+    private static final long BASE_ANSWER_MILLIS = 1_000;
+    private static final long MILLIS_PER_QUESTION_CHAR = 15;
+    private static final int FAST_ANSWERS_TO_FLAG = 3;
+
+    // Answers per rolling window, and the size of the table of recent windows
+    private static final int SEQUENCE_WINDOW = 4;
+    // Shared wrong answers needed in a window, and how many sessions apart a copy may start
+    private static final int MIN_SHARED_WRONG = 2;
+    private static final long MAX_SESSION_GAP = 1_000;
+    private static final int WINDOW_TABLE_BITS = 16;
+    private static final long HASH_MULTIPLIER = 0x100000001B3L;
+
+    // Standard deviations above the mean log scoring rate, and the samples needed first
+    private static final double OUTLIER_SIGMAS = 3.5;
+    private static final int OUTLIER_MIN_SESSIONS = 50;
+
+    public enum Kind { FAST_ANSWERS, DUPLICATE_SEQUENCE, SCORE_OUTLIER }
+
+    // Inner class describing one raised flag
+    public static class Flag {
+        private final Kind kind;
+        private final long sessionId;
+        private final String playerName;
+        private final String category;
+        private final String detail;
+
+        Flag(Kind kind, Session session, String detail) {
+            this.kind = kind;
+            this.sessionId = session.id;
+            this.playerName = session.playerName;
+            this.category = session.category;
+            this.detail = detail;
+        }
+
+        // Getters
+        public Kind getKind() { return kind; }
+        public long getSessionId() { return sessionId; }
+        public String getPlayerName() { return playerName; }
+        public String getCategory() { return category; }
+        public String getDetail() { return detail; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s in %s (session %d) - %s", kind, playerName, category, sessionId, detail);
+        }
+    }
+
+    // Event types
+    private static final int SESSION_START = 0;
+    private static final int ANSWER = 1;
+    private static final int SESSION_END = 2;
+
+    // One entry in the event queue
+    private static final class Event {
+        final int type;
+        final long sessionId;
+        final String playerName;
+        final String category;
+        final int questionId;
+        final long answer;
+        final boolean correct;
+        final long answerMillis;
+        final int questionLength;
+        final int pointsEarned;
+
+        Event(int type, long sessionId, String playerName, String category, int questionId, long answer,
+              boolean correct, long answerMillis, int questionLength, int pointsEarned) {
+            this.type = type;
+            this.sessionId = sessionId;
+            this.playerName = playerName;
+            this.category = category;
+            this.questionId = questionId;
+            this.answer = answer;
+            this.correct = correct;
+            this.answerMillis = answerMillis;
+            this.questionLength = questionLength;
+            this.pointsEarned = pointsEarned;
+        }
+    }
+
+    // Analysis state for an open session; only touched by the analysis thread
+    private static final class Session {
+        final long id;
+        final String playerName;
+        final String category;
+        int answers;
+        int fastCorrect;
+        int pointsEarned;
+        long answerMillis;
+        boolean fastFlagged;
+        boolean duplicateFlagged;
+        // Ring of the last SEQUENCE_WINDOW answer terms and their rolling hash
+        final long[] window = new long[SEQUENCE_WINDOW];
+        int wrongMask;
+        long windowHash;
+
+        Session(long id, String playerName, String category) {
+            this.id = id;
+            this.playerName = playerName;
+            this.category = category;
+        }
+    }
+
+    // Running mean and variance (Welford) of log scoring rates in one category
+    private static final class RateStats {
+        long count;
+        double mean;
+        double m2;
+
+        void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+        }
+
+        double standardDeviation() {
+            return count > 1 ? Math.sqrt(m2 / (count - 1)) : 0.0;
+        }
+    }
+
+    private final BlockingQueue<Event> events;
+    private final BlockingQueue<Flag> flags;
+    private final Consumer<Flag> listener;
+    private final Thread analysisThread;
+    private final Thread reportingThread;
+    private volatile boolean running;
+
+    private final AtomicLong nextSessionId;
+    private final LongAdder submittedEvents;
+    private final LongAdder droppedEvents;
+    private final AtomicLong analyzedEvents;
+    private final AtomicLong raisedFlags;
+    private final AtomicLong reportedFlags;
+    private final Deque<Flag> recentFlags;
+
+    // Analysis thread state
+    private final Map<Long, Session> openSessions;
+    private final Map<String, RateStats> rateStatsByCategory;
+    private final long[] windowHashes;
+    private final long[] windowSessions;
+    private final String[] windowPlayers;
+    private final long oldestTermFactor;
+
+    // Constructor
+    public AnswerAnomalyDetector() {
+        this(null);
+    }
+
+    /**
+     * Constructor
+     * @param listener Called on the reporting thread for every flag, or null
+     */
+    public AnswerAnomalyDetector(Consumer<Flag> listener) {
+        this.events = new ArrayBlockingQueue<>(EVENT_QUEUE_CAPACITY);
+        this.flags = new ArrayBlockingQueue<>(FLAG_QUEUE_CAPACITY);
+        this.listener = listener;
+        this.nextSessionId = new AtomicLong();
+        this.submittedEvents = new LongAdder();
+        this.droppedEvents = new LongAdder();
+        this.analyzedEvents = new AtomicLong();
+        this.raisedFlags = new AtomicLong();
+        this.reportedFlags = new AtomicLong();
+        this.recentFlags = new ArrayDeque<>();
+
+        this.openSessions = new LinkedHashMap<Long, Session>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Session> eldest) {
+                return size() > MAX_OPEN_SESSIONS;
+            }
+        };
+        this.rateStatsByCategory = new HashMap<>();
+        this.windowHashes = new long[1 << WINDOW_TABLE_BITS];
+        this.windowSessions = new long[1 << WINDOW_TABLE_BITS];
+        this.windowPlayers = new String[1 << WINDOW_TABLE_BITS];
+        long factor = 1;
+        for (int i = 1; i < SEQUENCE_WINDOW; i++) {
+            factor *= HASH_MULTIPLIER;
+        }
+        this.oldestTermFactor = factor;
+
+        this.running = true;
+        this.analysisThread = new Thread(this::analyze, "anomaly-analysis");
+        this.analysisThread.setDaemon(true);
+        this.reportingThread = new Thread(this::report, "anomaly-reporting");
+        this.reportingThread.setDaemon(true);
+        this.analysisThread.start();
+        this.reportingThread.start();
+    }
+
+    /**
+     * Report that a player started a quiz
+     * @return Session ID to pass with the session's answers
+     */
+    public long startSession(String playerName, String category) {
+        long sessionId = nextSessionId.incrementAndGet();
+        submit(new Event(SESSION_START, sessionId, playerName, category, -1, 0, false, 0, 0, 0));
+        return sessionId;
+    }
+
+    /**
+     * Report a graded answer; never blocks
+     */
+    public void onAnswer(long sessionId, Question question, QuizResult.QuestionResult graded) {
+        submit(new Event(ANSWER, sessionId, null, null, graded.getQuestionId(), graded.getAnswer(), graded.isCorrect(),
+                graded.getAnswerMillis(), question.getQuestionText().length(), graded.getPointsEarned()));
+    }
+
+    /**
+     * Report that a quiz finished; runs the end-of-session checks
+     */
+    public void endSession(long sessionId) {
+        submit(new Event(SESSION_END, sessionId, null, null, -1, 0, false, 0, 0, 0));
+    }
+
+    private void submit(Event event) {
+        submittedEvents.increment();
+        if (!events.offer(event)) {
+            droppedEvents.increment();
+        }
+    }
+
+    /**
+     * Wait until every submitted event has been analyzed and every flag reported
+     * @return true if the pipeline caught up within the timeout
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        while (analyzedEvents.get() + droppedEvents.sum() < submittedEvents.sum() ||
+               reportedFlags.get() < raisedFlags.get()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    /**
+     * Stop the pipeline; events still queued are discarded
+     */
+    @Override
+    public void close() {
+        running = false;
+        analysisThread.interrupt();
+        reportingThread.interrupt();
+    }
+
+    // Getters
+    public long getSubmittedEvents() { return submittedEvents.sum(); }
+    public long getDroppedEvents() { return droppedEvents.sum(); }
+    public long getAnalyzedEvents() { return analyzedEvents.get(); }
+    public long getFlagCount() { return reportedFlags.get(); }
+
+    /**
+     * Get the most recent flags, oldest first
+     */
+    public List<Flag> getRecentFlags() {
+        synchronized (recentFlags) {
+            return new ArrayList<>(recentFlags);
+        }
+    }
+
+    // Analysis stage: drains events in batches
+    private void analyze() {
+        List<Event> batch = new ArrayList<>(ANALYSIS_BATCH_SIZE);
+        try {
+            while (running) {
+                batch.add(events.take());
+                events.drainTo(batch, ANALYSIS_BATCH_SIZE - 1);
+                for (Event event : batch) {
+                    switch (event.type) {
+                        case SESSION_START:
+                            openSessions.put(event.sessionId, new Session(event.sessionId, event.playerName, event.category));
+                            break;
+                        case ANSWER:
+                            Session session = openSessions.get(event.sessionId);
+                            if (session != null) {
+                                analyzeAnswer(session, event);
+                            }
+                            break;
+                        default:
+                            Session ended = openSessions.remove(event.sessionId);
+                            if (ended != null) {
+                                analyzeSession(ended);
+                            }
+                            break;
+                    }
+                }
+                analyzedEvents.addAndGet(batch.size());
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void analyzeAnswer(Session session, Event event) throws InterruptedException {
+        int position = session.answers++ % SEQUENCE_WINDOW;
+        session.pointsEarned += event.pointsEarned;
+        session.answerMillis += Math.max(0, event.answerMillis);
+
+        // Answer times of 0 or less are unknown
+        long minimumMillis = BASE_ANSWER_MILLIS + MILLIS_PER_QUESTION_CHAR * event.questionLength;
+        if (event.correct && event.answerMillis > 0 && event.answerMillis < minimumMillis) {
+            session.fastCorrect++;
+            if (session.fastCorrect >= FAST_ANSWERS_TO_FLAG && !session.fastFlagged) {
+                session.fastFlagged = true;
+                raise(new Flag(Kind.FAST_ANSWERS, session, session.fastCorrect + " correct answers under " +
+                        minimumMillis + " ms (last took " + event.answerMillis + " ms)"));
+            }
+        }
+
+        // Roll the window: drop the oldest answer's term, add this one's
+        long term = answerTerm(event);
+        session.windowHash = (session.windowHash - session.window[position] * oldestTermFactor) * HASH_MULTIPLIER + term;
+        session.window[position] = term;
+        session.wrongMask = event.correct ? session.wrongMask & ~(1 << position) : session.wrongMask | (1 << position);
+
+        // Matching correct answers is expected; matching several wrong ones is not
+        if (session.answers >= SEQUENCE_WINDOW && Integer.bitCount(session.wrongMask) >= MIN_SHARED_WRONG) {
+            int slot = (int) (session.windowHash >>> (64 - WINDOW_TABLE_BITS));
+            if (windowHashes[slot] == session.windowHash && windowSessions[slot] != 0 &&
+                windowSessions[slot] != session.id && Math.abs(session.id - windowSessions[slot]) <= MAX_SESSION_GAP &&
+                !session.playerName.equals(windowPlayers[slot]) && !session.duplicateFlagged) {
+                session.duplicateFlagged = true;
+                raise(new Flag(Kind.DUPLICATE_SEQUENCE, session, "last " + SEQUENCE_WINDOW + " answers (" +
+                        Integer.bitCount(session.wrongMask) + " wrong) match " + windowPlayers[slot] +
+                        " (session " + windowSessions[slot] + ")"));
+            }
+            windowHashes[slot] = session.windowHash;
+            windowSessions[slot] = session.id;
+            windowPlayers[slot] = session.playerName;
+        }
+    }
+
+    private void analyzeSession(Session session) throws InterruptedException {
+        if (session.answers == 0 || session.answerMillis == 0 || session.pointsEarned <= 0) {
+            return;
+        }
+        double pointsPerSecond = session.pointsEarned * 1000.0 / session.answerMillis;
+        double logRate = Math.log(pointsPerSecond);
+        RateStats stats = rateStatsByCategory.computeIfAbsent(session.category, k -> new RateStats());
+        double deviation = stats.standardDeviation();
+        if (stats.count >= OUTLIER_MIN_SESSIONS && deviation > 0) {
+            double sigmas = (logRate - stats.mean) / deviation;
+            if (sigmas > OUTLIER_SIGMAS) {
+                raise(new Flag(Kind.SCORE_OUTLIER, session, String.format("%.2f points/s, %.1f sd above the norm of %.2f",
+                        pointsPerSecond, sigmas, Math.exp(stats.mean))));
+            }
+        }
+        stats.add(logRate);
+    }
+
+    // Blocks when the reporting stage is behind, which backs up the event queue
+    private void raise(Flag flag) throws InterruptedException {
+        raisedFlags.incrementAndGet();
+        flags.put(flag);
+    }
+
+    // Reporting stage: keeps recent flags and notifies the listener
+    private void report() {
+        try {
+            while (running) {
+                Flag flag = flags.take();
+                synchronized (recentFlags) {
+                    if (recentFlags.size() == RECENT_FLAG_CAPACITY) {
+                        recentFlags.removeFirst();
+                    }
+                    recentFlags.addLast(flag);
+                }
+                if (listener != null) {
+                    try {
+                        listener.accept(flag);
+                    } catch (RuntimeException e) {
+                        // A failing listener must not stop reporting
+                    }
+                }
+                reportedFlags.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Mix question, answer and correctness into one well-spread hash term
+    private static long answerTerm(Event event) {
+        long h = (((long) event.questionId << 1) | (event.correct ? 1 : 0)) * 0x9E3779B97F4A7C15L ^ event.answer;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
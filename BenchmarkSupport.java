@@ -0,0 +1,96 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * BenchmarkSupport class - helpers shared by the benchmarks and the load simulator
+ * Parses key=value command-line options, reads the per-thread allocation
+ * counter and keeps measured results reachable.
+ */
+public final class BenchmarkSupport {
+
+    // Keeps results reachable so the JIT cannot drop the calls that produced them
+    private static long sink;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Parse key=value arguments, rejecting keys not in the known list
+     */
+    public static Options parseOptions(String[] args, String... knownKeys) {
+        Set<String> known = new HashSet<>(Arrays.asList(knownKeys));
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            String key = arg.substring(0, eq);
+            if (!known.contains(key)) {
+                throw new IllegalArgumentException("Unknown option: " + key);
+            }
+            values.put(key, arg.substring(eq + 1));
+        }
+        return new Options(values);
+    }
+
+    /**
+     * Bytes allocated by the current thread so far
+     * @return Byte count, or -1 when the JVM can't tell us
+     */
+    public static long threadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean extended = (com.sun.management.ThreadMXBean) threads;
+            if (extended.isThreadAllocatedMemorySupported() && extended.isThreadAllocatedMemoryEnabled()) {
+                return extended.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Fold a measured call's result into a static field so it counts as used
+     */
+    public static void consume(long value) {
+        sink += value;
+    }
+
+    // Command-line options with typed lookups and defaults
+    public static class Options {
+        private final Map<String, String> values;
+
+        private Options(Map<String, String> values) {
+            this.values = values;
+        }
+
+        public int getInt(String key, int defaultValue) {
+            String value = values.get(key);
+            return value == null ? defaultValue : Integer.parseInt(value);
+        }
+
+        public long getLong(String key, long defaultValue) {
+            String value = values.get(key);
+            return value == null ? defaultValue : Long.parseLong(value);
+        }
+
+        public double getDouble(String key, double defaultValue) {
+            String value = values.get(key);
+            return value == null ? defaultValue : Double.parseDouble(value);
+        }
+
+        public boolean getBoolean(String key, boolean defaultValue) {
+            String value = values.get(key);
+            return value == null ? defaultValue : Boolean.parseBoolean(value);
+        }
+
+        public String getString(String key, String defaultValue) {
+            return values.getOrDefault(key, defaultValue);
+        }
+    }
+}
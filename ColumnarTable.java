@@ -0,0 +1,174 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ColumnarTable class - a small typed table stored column by column
+ * Used for analytics output. Each column's values are written contiguously so
+ * readers can load just the columns they need and compress them well.
+ *
+ * File layout (big-endian): magic "QCOL", format version, row count, column
+ * count, then per column: name, type tag, and all of its values.
+ */
+public class ColumnarTable {
+    private static final int MAGIC = 0x51434F4C; // "QCOL"
+    private static final int FORMAT_VERSION = 1;
+
+    public static final byte TYPE_LONG = 1;
+    public static final byte TYPE_DOUBLE = 2;
+    public static final byte TYPE_STRING = 3;
+
+    private final String name;
+    private final int rowCount;
+    private final List<Column> columns;
+
+    // Constructor
+    public ColumnarTable(String name, int rowCount) {
+        this.name = name;
+        this.rowCount = rowCount;
+        this.columns = new ArrayList<>();
+    }
+
+    // Inner class holding one column's values as a primitive or String array
+    public static class Column {
+        private final String name;
+        private final byte type;
+        private final Object values;
+
+        private Column(String name, byte type, Object values) {
+            this.name = name;
+            this.type = type;
+            this.values = values;
+        }
+
+        // Getters
+        public String getName() { return name; }
+        public byte getType() { return type; }
+        public long[] getLongs() { return (long[]) values; }
+        public double[] getDoubles() { return (double[]) values; }
+        public String[] getStrings() { return (String[]) values; }
+    }
+
+    public ColumnarTable addLongColumn(String columnName, long[] values) {
+        return addColumn(new Column(columnName, TYPE_LONG, values), values.length);
+    }
+
+    public ColumnarTable addDoubleColumn(String columnName, double[] values) {
+        return addColumn(new Column(columnName, TYPE_DOUBLE, values), values.length);
+    }
+
+    public ColumnarTable addStringColumn(String columnName, String[] values) {
+        return addColumn(new Column(columnName, TYPE_STRING, values), values.length);
+    }
+
+    private ColumnarTable addColumn(Column column, int length) {
+        if (length != rowCount) {
+            throw new IllegalArgumentException("Column " + column.getName() + " has " + length +
+                                               " rows, expected " + rowCount);
+        }
+        columns.add(column);
+        return this;
+    }
+
+    /**
+     * Write the table to a file
+     */
+    public void writeTo(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeUTF(name);
+            out.writeInt(rowCount);
+            out.writeInt(columns.size());
+            for (Column column : columns) {
+                out.writeUTF(column.getName());
+                out.writeByte(column.getType());
+                switch (column.getType()) {
+                    case TYPE_LONG:
+                        for (long value : column.getLongs()) out.writeLong(value);
+                        break;
+                    case TYPE_DOUBLE:
+                        for (double value : column.getDoubles()) out.writeDouble(value);
+                        break;
+                    default:
+                        for (String value : column.getStrings()) out.writeUTF(value == null ? "" : value);
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Read a table written by writeTo
+     */
+    public static ColumnarTable readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a columnar table file: " + file);
+            }
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported columnar table version: " + version);
+            }
+            ColumnarTable table = new ColumnarTable(in.readUTF(), in.readInt());
+            int columnCount = in.readInt();
+            for (int c = 0; c < columnCount; c++) {
+                String columnName = in.readUTF();
+                byte type = in.readByte();
+                if (type == TYPE_LONG) {
+                    long[] values = new long[table.rowCount];
+                    for (int i = 0; i < values.length; i++) values[i] = in.readLong();
+                    table.addLongColumn(columnName, values);
+                } else if (type == TYPE_DOUBLE) {
+                    double[] values = new double[table.rowCount];
+                    for (int i = 0; i < values.length; i++) values[i] = in.readDouble();
+                    table.addDoubleColumn(columnName, values);
+                } else if (type == TYPE_STRING) {
+                    String[] values = new String[table.rowCount];
+                    for (int i = 0; i < values.length; i++) values[i] = in.readUTF();
+                    table.addStringColumn(columnName, values);
+                } else {
+                    throw new IOException("Unknown column type " + type + " in " + file);
+                }
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Format the first rows as an aligned text table
+     */
+    public String preview(int maxRows) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("== ").append(name).append(" (").append(rowCount).append(" rows) ==\n");
+        for (Column column : columns) {
+            sb.append(String.format("%-20s", column.getName()));
+        }
+        sb.append("\n");
+        for (int row = 0; row < Math.min(maxRows, rowCount); row++) {
+            for (Column column : columns) {
+                String cell;
+                switch (column.getType()) {
+                    case TYPE_LONG: cell = String.valueOf(column.getLongs()[row]); break;
+                    case TYPE_DOUBLE: cell = String.format("%.3f", column.getDoubles()[row]); break;
+                    default: cell = column.getStrings()[row]; break;
+                }
+                sb.append(String.format("%-20s", cell));
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    // Getters
+    public String getName() { return name; }
+    public int getRowCount() { return rowCount; }
+    public List<Column> getColumns() { return Collections.unmodifiableList(columns); }
+}
@@ -0,0 +1,226 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * FairTaskScheduler class - a worker pool that shares its threads fairly between keys
+ * Each key (a tenant) has its own bounded queue. Workers take one task at a
+ * time from each key with pending work in turn, so a key with thousands of
+ * queued tasks delays another key's task by at most one task per worker.
+ * A key may also run on at most a set number of workers at once, which keeps
+ * some workers free for everyone else.
+ */
+public class FairTaskScheduler implements AutoCloseable {
+    private final ReentrantLock lock;
+    private final Condition workAvailable;
+    private final Map<String, KeyQueue> queues;
+    // Keys with pending tasks and a free concurrency slot, in turn order
+    private final Deque<KeyQueue> ready;
+    private final List<Thread> workers;
+    private final int maxConcurrentPerKey;
+    private boolean running;
+
+    // Pending work and limits for one key; guarded by the scheduler lock
+    private static final class KeyQueue {
+        final String key;
+        final int capacity;
+        final Deque<Runnable> tasks;
+        final Deque<CompletableFuture<?>> futures;
+        int active;
+        boolean inReady;
+
+        KeyQueue(String key, int capacity) {
+            this.key = key;
+            this.capacity = capacity;
+            this.tasks = new ArrayDeque<>();
+            this.futures = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Constructor
+     * @param workerCount Number of worker threads
+     * @param maxConcurrentPerKey Most workers one key may occupy at once
+     */
+    public FairTaskScheduler(int workerCount, int maxConcurrentPerKey) {
+        if (workerCount <= 0 || maxConcurrentPerKey <= 0) {
+            throw new IllegalArgumentException("Worker counts must be positive");
+        }
+        this.lock = new ReentrantLock();
+        this.workAvailable = lock.newCondition();
+        this.queues = new HashMap<>();
+        this.ready = new ArrayDeque<>();
+        this.workers = new ArrayList<>(workerCount);
+        this.maxConcurrentPerKey = maxConcurrentPerKey;
+        this.running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "fair-worker-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Register a key
+     * @param maxQueuedTasks Tasks the key may have waiting before submit rejects more
+     * @throws IllegalArgumentException if the key is already registered
+     */
+    public void addKey(String key, int maxQueuedTasks) {
+        if (maxQueuedTasks <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        lock.lock();
+        try {
+            if (queues.containsKey(key)) {
+                throw new IllegalArgumentException("Key already registered: " + key);
+            }
+            queues.put(key, new KeyQueue(key, maxQueuedTasks));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Unregister a key; its queued tasks are cancelled, running ones finish
+     */
+    public void removeKey(String key) {
+        List<CompletableFuture<?>> cancelled;
+        lock.lock();
+        try {
+            KeyQueue queue = queues.remove(key);
+            if (queue == null) {
+                return;
+            }
+            ready.remove(queue);
+            queue.tasks.clear();
+            cancelled = new ArrayList<>(queue.futures);
+            queue.futures.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (CompletableFuture<?> future : cancelled) {
+            future.completeExceptionally(new CancellationException("Key removed: " + key));
+        }
+    }
+
+    /**
+     * Queue a task for a key
+     * @throws RejectedExecutionException if the key is unknown, its queue is full,
+     *         or the scheduler is closed
+     */
+    public <T> CompletableFuture<T> submit(String key, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        lock.lock();
+        try {
+            KeyQueue queue = queues.get(key);
+            if (!running || queue == null) {
+                throw new RejectedExecutionException("No such key or scheduler closed: " + key);
+            }
+            if (queue.tasks.size() >= queue.capacity) {
+                throw new RejectedExecutionException("Too many queued tasks for " + key);
+            }
+            queue.futures.addLast(future);
+            queue.tasks.addLast(() -> {
+                try {
+                    future.complete(task.call());
+                } catch (Exception | Error e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            makeReady(queue);
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    /**
+     * Number of tasks waiting for a key, not counting running ones
+     */
+    public int getQueuedTasks(String key) {
+        lock.lock();
+        try {
+            KeyQueue queue = queues.get(key);
+            return queue == null ? 0 : queue.tasks.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop the workers; queued tasks are cancelled
+     */
+    @Override
+    public void close() {
+        List<String> keys;
+        lock.lock();
+        try {
+            running = false;
+            keys = new ArrayList<>(queues.keySet());
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (String key : keys) {
+            removeKey(key);
+        }
+    }
+
+    // Caller holds the lock
+    private void makeReady(KeyQueue queue) {
+        if (!queue.inReady && !queue.tasks.isEmpty() && queue.active < maxConcurrentPerKey) {
+            queue.inReady = true;
+            ready.addLast(queue);
+            workAvailable.signal();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            KeyQueue queue;
+            Runnable task;
+            lock.lock();
+            try {
+                while (running && ready.isEmpty()) {
+                    workAvailable.awaitUninterruptibly();
+                }
+                if (!running) {
+                    return;
+                }
+                queue = ready.pollFirst();
+                queue.inReady = false;
+                task = queue.tasks.pollFirst();
+                queue.futures.pollFirst();
+                queue.active++;
+                // Back of the line, so other keys go first
+                makeReady(queue);
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.run();
+            } finally {
+                lock.lock();
+                try {
+                    queue.active--;
+                    if (queues.get(queue.key) == queue) {
+                        makeReady(queue);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+}
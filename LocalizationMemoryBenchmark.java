@@ -0,0 +1,203 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * LocalizationMemoryBenchmark - heap growth of a bank served in several languages
+ * Builds the same bank three ways: original text only, with translations
+ * stored on each question, and with one duplicated question per locale, and
+ * compares each one's measured heap growth with the size of the translated
+ * strings themselves. Translations are published through
+ * QuizManager.addTranslations, one batch per locale. Also times locale
+ * resolution with fallback, republishing translations in a batch and one at a
+ * time, and the first localized search after a translation is added.
+ * Heap use is sampled after full GCs, so run it with a fixed heap, e.g. -Xmx1g.
+ *
+ * Usage: java LocalizationMemoryBenchmark [questions=20000] [locales=9]
+ */
+public class LocalizationMemoryBenchmark {
+    private static final String[] LOCALE_TAGS = {"fr", "de", "es", "it", "pt-BR", "nl", "pl", "sv", "ja", "ko",
+                                                  "zh-Hans", "tr", "cs", "da", "fi", "nb"};
+
+    public static void main(String[] args) {
+        BenchmarkSupport.Options options = BenchmarkSupport.parseOptions(args, "questions", "locales");
+        int questionCount = options.getInt("questions", 20_000);
+        int localeCount = options.getInt("locales", 9);
+        if (localeCount < 1 || localeCount > LOCALE_TAGS.length) {
+            throw new IllegalArgumentException("locales must be between 1 and " + LOCALE_TAGS.length);
+        }
+        String[] tags = Arrays.copyOf(LOCALE_TAGS, localeCount);
+
+        long empty = usedHeap();
+        QuizManager original = bank(questionCount, tags, false);
+        long originalBytes = usedHeap() - empty;
+        original = null;
+
+        QuizManager translated = bank(questionCount, tags, true);
+        long translatedBytes = usedHeap() - empty;
+        long textBytes = translatedTextBytes(translated);
+        long estimatedBytes = translated.getEstimatedBankBytes();
+
+        QuizManager duplicated = new QuizManager(false);
+        for (int l = 0; l <= localeCount; l++) {
+            List<Question> copies = new ArrayList<>(questionCount);
+            for (int i = 0; i < questionCount; i++) {
+                copies.add(l == 0 ? question(i) : translatedQuestion(i, tags[l - 1]));
+            }
+            duplicated.addQuestions(copies);
+        }
+        long duplicatedBytes = usedHeap() - empty - translatedBytes;
+
+        System.out.println(String.format("%d questions, %d locales besides the original", questionCount, localeCount));
+        System.out.println(String.format("  Original text only:        %,8d KB", originalBytes >> 10));
+        System.out.println(String.format("  With translations:         %,8d KB  (+%,d KB; translated strings alone are %,d KB, %.2fx)",
+                translatedBytes >> 10, (translatedBytes - originalBytes) >> 10, textBytes >> 10,
+                (double) (translatedBytes - originalBytes) / textBytes));
+        System.out.println(String.format("  One question per locale:   %,8d KB  (+%,d KB, %.2fx the translated strings)",
+                duplicatedBytes >> 10, (duplicatedBytes - originalBytes) >> 10,
+                (double) (duplicatedBytes - originalBytes) / textBytes));
+        System.out.println(String.format("  Budget estimate with translations: %,d KB", estimatedBytes >> 10));
+
+        timeResolve(translated, tags);
+        timePublish(translated, questionCount, tags);
+        BenchmarkSupport.consume(translated.getTotalQuestions() + duplicated.getTotalQuestions());
+    }
+
+    private static QuizManager bank(int questionCount, String[] tags, boolean withTranslations) {
+        QuizManager quizManager = new QuizManager(false);
+        List<Question> questions = new ArrayList<>(questionCount);
+        for (int i = 0; i < questionCount; i++) {
+            questions.add(question(i));
+        }
+        quizManager.addQuestions(questions);
+        if (withTranslations) {
+            for (String tag : tags) {
+                quizManager.addTranslations(tag, translations(questionCount, tag));
+            }
+        }
+        return quizManager;
+    }
+
+    // Translations carrying the IDs of the bank's questions, which start at 0
+    private static List<Question> translations(int questionCount, String tag) {
+        List<Question> translations = new ArrayList<>(questionCount);
+        for (int i = 0; i < questionCount; i++) {
+            Question translation = translatedQuestion(i, tag);
+            translation.setId(i);
+            translations.add(translation);
+        }
+        return translations;
+    }
+
+    private static Question question(int i) {
+        return new Question("Which synthetic answer belongs to question number " + i + "?",
+                Arrays.asList("Answer " + i, "Option " + (i + 1), "Option " + (i + 2), "Option " + (i + 3)),
+                i % 4, "Category " + (i % 20), 5 + i % 11);
+    }
+
+    // Option "Answer <i>" is left untranslated, as names and numbers often are
+    private static Question translatedQuestion(int i, String tag) {
+        return new Question("[" + tag + "] Quelle réponse synthétique correspond à la question " + i + " ?",
+                Arrays.asList("Answer " + i, "[" + tag + "] Option " + (i + 1), "[" + tag + "] Option " + (i + 2),
+                        "[" + tag + "] Option " + (i + 3)),
+                i % 4, "Category " + (i % 20), 5 + i % 11);
+    }
+
+    // Translated strings as separate objects: header, value array and contents
+    private static long translatedTextBytes(QuizManager quizManager) {
+        long bytes = 0;
+        for (Question question : quizManager.getAllQuestions()) {
+            QuestionTranslations translations = question.getTranslations();
+            for (QuizLocale locale : translations.getLocales()) {
+                int offset = translations.resolve(locale);
+                bytes += stringBytes(translations.getText(offset));
+                for (int o = 0; o < question.getOptionCount(); o++) {
+                    bytes += stringBytes(translations.getOption(offset, o));
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String text) {
+        if (text == null) {
+            return 0;
+        }
+        boolean latin1 = text.chars().allMatch(c -> c < 256);
+        long valueBytes = 16 + (latin1 ? text.length() : text.length() * 2L);
+        return 24 + ((valueBytes + 7) & ~7L);
+    }
+
+    // Resolving an exact locale, a fallback ("fr-CA" -> "fr") and a miss back to the original
+    private static void timeResolve(QuizManager quizManager, String[] tags) {
+        List<Question> questions = quizManager.getAllQuestions();
+        QuizLocale[] locales = {QuizLocale.of(tags[tags.length - 1]), QuizLocale.of("fr-CA"), QuizLocale.of("ru")};
+        String[] labels = {"exact", "fallback", "untranslated"};
+        for (int round = 0; round < 2; round++) {
+            for (int l = 0; l < locales.length; l++) {
+                int calls = 5_000_000;
+                long start = System.nanoTime();
+                for (int i = 0; i < calls; i++) {
+                    Question question = questions.get(i % questions.size());
+                    BenchmarkSupport.consume(question.getQuestionText(locales[l]).length()
+                            + question.getOptionText(1, locales[l]).length());
+                }
+                double ns = (System.nanoTime() - start) / (double) calls;
+                if (round == 1) {
+                    System.out.println(String.format("  Resolve %-12s (%s): %.1f ns per question text + option",
+                            labels[l], locales[l], ns));
+                }
+            }
+        }
+    }
+
+    // Republishing a whole locale as one batch, single translations, and a localized search right after one
+    private static void timePublish(QuizManager quizManager, int questionCount, String[] tags) {
+        String tag = tags[0];
+        List<Question> batch = translations(questionCount, tag);
+        int calls = Math.min(questionCount, 1_000);
+        // The first rounds warm up the JIT
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            int published = quizManager.addTranslations(tag, batch);
+            double batchMillis = (System.nanoTime() - start) / 1e6;
+
+            start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                Question translation = batch.get(i);
+                quizManager.addTranslation(i, tag, translation.getQuestionText(), translation.getOptions());
+            }
+            double callMillis = (System.nanoTime() - start) / 1e6 / calls;
+            if (round == 2) {
+                System.out.println(String.format("  addTranslations:  %.1f ms for %,d questions in one snapshot",
+                        batchMillis, published));
+                System.out.println(String.format("  addTranslation:   %.3f ms per call, one snapshot each", callMillis));
+            }
+        }
+
+        QuizLocale locale = QuizLocale.of(tag);
+        BenchmarkSupport.consume(quizManager.searchQuestions("synthétique", locale).size());
+        Question translation = batch.get(0);
+        quizManager.addTranslation(0, tag, translation.getQuestionText(), translation.getOptions());
+        long start = System.nanoTime();
+        BenchmarkSupport.consume(quizManager.searchQuestions("synthétique", locale).size());
+        System.out.println(String.format("  Search in %s right after addTranslation: %.2f ms",
+                tag, (System.nanoTime() - start) / 1e6));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // Repeat until a GC frees nothing more
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,168 @@
+import java.util.List;
+
+/**
+ * MultiSelectQuestion class - a question with one or more right options
+ * The right options are a bitmask (bit i set = option i is right), and so is a
+ * player's answer, so checking an answer is a single comparison. With partial
+ * credit enabled in the scoring rules, each right option chosen earns a share.
+ */
+public class MultiSelectQuestion extends Question {
+    // Options are named by letter
+    public static final int MAX_OPTIONS = 26;
+
+    private long correctMask;
+
+    // Constructor
+    public MultiSelectQuestion(String questionText, List<String> options, long correctMask, String category, int points) {
+        super(questionText, options, Long.numberOfTrailingZeros(correctMask), category, points);
+        this.correctMask = correctMask;
+    }
+
+    // Copy constructor; the copy is never frozen
+    public MultiSelectQuestion(MultiSelectQuestion other) {
+        super(other);
+        this.correctMask = other.correctMask;
+    }
+
+    /**
+     * Build the bitmask for a set of option indexes
+     */
+    public static long maskOf(int... optionIndexes) {
+        long mask = 0;
+        for (int index : optionIndexes) {
+            if (index < 0 || index >= MAX_OPTIONS) {
+                throw new IllegalArgumentException("Option index out of range: " + index);
+            }
+            mask |= 1L << index;
+        }
+        return mask;
+    }
+
+    @Override
+    public Question copy() {
+        return new MultiSelectQuestion(this);
+    }
+
+    // Getters
+    @Override
+    public Type getType() { return Type.MULTI_SELECT; }
+    public long getCorrectMask() { return correctMask; }
+
+    /**
+     * @return The first right option, or -1 if none is set
+     */
+    @Override
+    public int getCorrectAnswerIndex() {
+        return correctMask == 0 ? -1 : Long.numberOfTrailingZeros(correctMask);
+    }
+
+    // Setters (not allowed once the question is frozen)
+    public void setCorrectMask(long correctMask) { checkNotFrozen(); this.correctMask = correctMask; }
+
+    /**
+     * Make the given option the only right one
+     * @throws IllegalArgumentException if the index is out of range
+     */
+    @Override
+    public void setCorrectAnswerIndex(int correctAnswerIndex) {
+        setCorrectMask(maskOf(correctAnswerIndex));
+    }
+
+    @Override
+    public void setCorrectAnswer(long answer) {
+        setCorrectMask(answer);
+    }
+
+    /**
+     * @return true if the given option is the only right one
+     */
+    @Override
+    public boolean isCorrect(int answerIndex) {
+        return answerIndex >= 0 && answerIndex < MAX_OPTIONS && correctMask == 1L << answerIndex;
+    }
+
+    @Override
+    public boolean isCorrectAnswer(long answer) {
+        return answer == correctMask;
+    }
+
+    @Override
+    public long getCorrectAnswer() {
+        return correctMask;
+    }
+
+    @Override
+    public int score(ScoringEngine scoring, long answer, long answerMillis) {
+        return scoring.scorePartial(getPoints(), Long.bitCount(answer & correctMask),
+                Long.bitCount(answer & ~correctMask), Long.bitCount(correctMask), answerMillis);
+    }
+
+    /**
+     * @param input Option letters, e.g. "AC" or "A, C"
+     */
+    @Override
+    public long parseAnswer(String input) {
+        long mask = 0;
+        int optionCount = getOptionCount();
+        for (int i = 0; i < input.length(); i++) {
+            char ch = Character.toUpperCase(input.charAt(i));
+            if (ch == ',' || ch == ' ') {
+                continue;
+            }
+            int index = ch - 'A';
+            if (index < 0 || index >= optionCount) {
+                throw new IllegalArgumentException("Please enter letters between A and " + (char) ('A' + optionCount - 1) + "!");
+            }
+            mask |= 1L << index;
+        }
+        if (mask == 0) {
+            throw new IllegalArgumentException("Please choose at least one option!");
+        }
+        return mask;
+    }
+
+    @Override
+    public String getAnswerPrompt() {
+        return "Your answers (letters A-" + (char) ('A' + getOptionCount() - 1) + ", e.g. AC): ";
+    }
+
+    @Override
+    public String formatAnswer(long answer, QuizLocale locale) {
+        StringBuilder sb = new StringBuilder();
+        for (long rest = answer; rest != 0; rest &= rest - 1) {
+            int index = Long.numberOfTrailingZeros(rest);
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(getOptionText(index, locale));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String getCorrectAnswerText(QuizLocale locale) {
+        return formatAnswer(correctMask, locale);
+    }
+
+    @Override
+    public String displayQuestion(QuizLocale locale) {
+        return super.displayQuestion(locale) + "(Select all that apply)\n";
+    }
+
+    @Override
+    public boolean isValid() {
+        int optionCount = getOptionCount();
+        return hasValidBasics() && optionCount >= 2 && optionCount <= MAX_OPTIONS &&
+               correctMask != 0 && (correctMask >>> optionCount) == 0;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && correctMask == ((MultiSelectQuestion) obj).correctMask;
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() * 31 + Long.hashCode(correctMask);
+    }
+}
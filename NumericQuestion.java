@@ -0,0 +1,152 @@
+import java.util.Collections;
+
+/**
+ * NumericQuestion class - a question answered with a number
+ * Answers within the tolerance of the correct value count as right. A player's
+ * answer is carried as the raw bits of a double, so it stays a primitive long
+ * like every other answer type.
+ */
+public class NumericQuestion extends Question {
+    private double correctValue;
+    private double tolerance;
+
+    // Constructor
+    public NumericQuestion(String questionText, double correctValue, double tolerance, String category, int points) {
+        super(questionText, Collections.emptyList(), -1, category, points);
+        this.correctValue = correctValue;
+        this.tolerance = tolerance;
+    }
+
+    // Copy constructor; the copy is never frozen
+    public NumericQuestion(NumericQuestion other) {
+        super(other);
+        this.correctValue = other.correctValue;
+        this.tolerance = other.tolerance;
+    }
+
+    /**
+     * Encode a number as an answer
+     */
+    public static long encodeAnswer(double value) {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    /**
+     * Decode an answer back to the number
+     */
+    public static double decodeAnswer(long answer) {
+        return Double.longBitsToDouble(answer);
+    }
+
+    @Override
+    public Question copy() {
+        return new NumericQuestion(this);
+    }
+
+    // Getters
+    @Override
+    public Type getType() { return Type.NUMERIC; }
+    public double getCorrectValue() { return correctValue; }
+    public double getTolerance() { return tolerance; }
+
+    // Setters (not allowed once the question is frozen)
+    public void setCorrectValue(double correctValue) { checkNotFrozen(); this.correctValue = correctValue; }
+    public void setTolerance(double tolerance) { checkNotFrozen(); this.tolerance = tolerance; }
+
+    /**
+     * Numeric questions have no options, so there is no right option to set
+     * @throws IllegalArgumentException always; use setCorrectValue or setCorrectAnswer
+     */
+    @Override
+    public void setCorrectAnswerIndex(int correctAnswerIndex) {
+        checkNotFrozen();
+        throw new IllegalArgumentException("Numeric questions have no options; use setCorrectValue");
+    }
+
+    @Override
+    public void setCorrectAnswer(long answer) {
+        setCorrectValue(decodeAnswer(answer));
+    }
+
+    /**
+     * Numeric questions have no options to choose from
+     * @throws IllegalArgumentException always; use isCorrectAnswer with an encoded answer
+     */
+    @Override
+    public boolean isCorrect(int answerIndex) {
+        throw new IllegalArgumentException("Use isCorrectAnswer for " + getType() + " questions");
+    }
+
+    @Override
+    public boolean isCorrectAnswer(long answer) {
+        // NaN never compares as within tolerance
+        return Math.abs(decodeAnswer(answer) - correctValue) <= tolerance;
+    }
+
+    @Override
+    public long getCorrectAnswer() {
+        return encodeAnswer(correctValue);
+    }
+
+    @Override
+    public long parseAnswer(String input) {
+        double value;
+        try {
+            value = Double.parseDouble(input.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Please enter a number!");
+        }
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Please enter a number!");
+        }
+        return encodeAnswer(value);
+    }
+
+    @Override
+    public String getAnswerPrompt() {
+        return "Your answer (a number): ";
+    }
+
+    @Override
+    public String formatAnswer(long answer, QuizLocale locale) {
+        return formatNumber(decodeAnswer(answer));
+    }
+
+    @Override
+    public String getCorrectAnswerText(QuizLocale locale) {
+        String text = formatNumber(correctValue);
+        return tolerance > 0 ? text + " (+/- " + formatNumber(tolerance) + ")" : text;
+    }
+
+    @Override
+    public String displayQuestion(QuizLocale locale) {
+        return getQuestionText(locale) + "\n";
+    }
+
+    @Override
+    public boolean isValid() {
+        return hasValidBasics() && !Double.isNaN(correctValue) && !Double.isInfinite(correctValue) &&
+               tolerance >= 0 && !Double.isInfinite(tolerance);
+    }
+
+    // Whole numbers without a trailing ".0"
+    private static String formatNumber(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!super.equals(obj)) return false;
+        NumericQuestion other = (NumericQuestion) obj;
+        return Double.compare(correctValue, other.correctValue) == 0 &&
+               Double.compare(tolerance, other.tolerance) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() * 31 + Double.hashCode(correctValue);
+    }
+}
@@ -1,6 +1,7 @@
 import java.util.*;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * OnlineQuizApp - Main application class
@@ -8,13 +9,32 @@ import java.time.temporal.ChronoUnit;
  */
 public class OnlineQuizApp {
     private QuizManager quizManager;
-    private Scanner scanner;
+    private QuizConsole console;
     private List<QuizResult> quizHistory;
+    private PracticeScheduler practiceScheduler;
+    private PercentileRankTracker rankTracker;
+    // Started by run() and stopped when it returns, so an unused app owns no threads
+    private AnswerAnomalyDetector anomalyDetector;
+    // Language chosen by the last player; null shows questions as written
+    private QuizLocale locale;
+
+    private static final int PRACTICE_SESSION_SIZE = 5;
+    // Random picks when topping up a practice session from a large pool
+    private static final int MAX_PRACTICE_DRAWS = 256;
 
     public OnlineQuizApp() {
-        this.quizManager = new QuizManager();
-        this.scanner = new Scanner(System.in);
+        this(new QuizManager(), new StreamQuizConsole(System.in, System.out));
+        console.println("Loaded " + quizManager.getTotalQuestions() + " questions across " +
+                        quizManager.getCategoryCount() + " categories.");
+    }
+
+    // Constructor for headless or custom I/O
+    public OnlineQuizApp(QuizManager quizManager, QuizConsole console) {
+        this.quizManager = quizManager;
+        this.console = console;
         this.quizHistory = new ArrayList<>();
+        this.practiceScheduler = new PracticeScheduler();
+        this.rankTracker = new PercentileRankTracker();
     }
 
     public static void main(String[] args) {
@@ -26,151 +46,170 @@ public class OnlineQuizApp {
      * Main application loop
      */
     public void run() {
-        displayWelcome();
-        
-        boolean running = true;
-        while (running) {
-            displayMainMenu();
-            int choice = getIntInput("Enter your choice: ", 1, 7);
+        anomalyDetector = new AnswerAnomalyDetector();
+        try {
+            displayWelcome();
             
-            switch (choice) {
-                case 1:
-                    startQuiz();
-                    break;
-                case 2:
-                    viewQuizHistory();
-                    break;
-                case 3:
-                    displayStatistics();
-                    break;
-                case 4:
-                    searchQuestions();
-                    break;
-                case 5:
-                    practiceMode();
-                    break;
-                case 6:
-                    displayHelp();
-                    break;
-                case 7:
-                    running = false;
-                    break;
-            }
+            boolean running = true;
+            while (running) {
+                displayMainMenu();
+                int choice = getIntInput("Enter your choice: ", 1, 7);
             
-            if (running) {
-                System.out.println("\nPress Enter to continue...");
-                scanner.nextLine();
+                switch (choice) {
+                    case 1:
+                        startQuiz();
+                        break;
+                    case 2:
+                        viewQuizHistory();
+                        break;
+                    case 3:
+                        displayStatistics();
+                        break;
+                    case 4:
+                        searchQuestions();
+                        break;
+                    case 5:
+                        practiceMode();
+                        break;
+                    case 6:
+                        displayHelp();
+                        break;
+                    case 7:
+                        running = false;
+                        break;
+                }
+            
+                if (running) {
+                    console.println("\nPress Enter to continue...");
+                    console.readLine();
+                }
             }
-        }
         
-        displayGoodbye();
-        scanner.close();
+            displayGoodbye();
+        } finally {
+            anomalyDetector.close();
+            console.close();
+        }
+    }
+
+    public List<QuizResult> getQuizHistory() {
+        return new ArrayList<>(quizHistory);
     }
 
     /**
      * Display welcome message
      */
     private void displayWelcome() {
-        System.out.println("=".repeat(60));
-        System.out.println("           🎯 WELCOME TO ONLINE QUIZ APP 🎯");
-        System.out.println("=".repeat(60));
-        System.out.println("Test your knowledge across multiple categories!");
-        System.out.println("Available categories: " + String.join(", ", quizManager.getAvailableCategories()));
-        System.out.println("Total questions available: " + quizManager.getTotalQuestions());
-        System.out.println("=".repeat(60));
+        console.println("=".repeat(60));
+        console.println("           🎯 WELCOME TO ONLINE QUIZ APP 🎯");
+        console.println("=".repeat(60));
+        console.println("Test your knowledge across multiple categories!");
+        console.println("Available categories: " + String.join(", ", quizManager.getAvailableCategories()));
+        console.println("Total questions available: " + quizManager.getTotalQuestions());
+        console.println("=".repeat(60));
     }
 
     /**
      * Display main menu
      */
     private void displayMainMenu() {
-        System.out.println("\n" + "=".repeat(50));
-        System.out.println("                MAIN MENU");
-        System.out.println("=".repeat(50));
-        System.out.println("1. 🎮 Start New Quiz");
-        System.out.println("2. 📊 View Quiz History");
-        System.out.println("3. 📈 View Statistics");
-        System.out.println("4. 🔍 Search Questions");
-        System.out.println("5. 💡 Practice Mode");
-        System.out.println("6. ❓ Help");
-        System.out.println("7. 🚪 Exit");
-        System.out.println("=".repeat(50));
+        console.println("\n" + "=".repeat(50));
+        console.println("                MAIN MENU");
+        console.println("=".repeat(50));
+        console.println("1. 🎮 Start New Quiz");
+        console.println("2. 📊 View Quiz History");
+        console.println("3. 📈 View Statistics");
+        console.println("4. 🔍 Search Questions");
+        console.println("5. 💡 Practice Mode");
+        console.println("6. ❓ Help");
+        console.println("7. 🚪 Exit");
+        console.println("=".repeat(50));
     }
 
     /**
      * Start a new quiz
      */
     private void startQuiz() {
-        System.out.println("\n=== START NEW QUIZ ===");
+        console.println("\n=== START NEW QUIZ ===");
         
         // Get player name
-        System.out.print("Enter your name: ");
-        String playerName = scanner.nextLine().trim();
+        console.print("Enter your name: ");
+        String playerName = console.readLine().trim();
         if (playerName.isEmpty()) {
             playerName = "Anonymous";
         }
         
+        selectLanguage();
+        
         // Select category
         String category = selectCategory();
         if (category == null) return;
         
+        // Pin the bank so edits made during the quiz don't affect it
+        QuestionBankSnapshot bank = quizManager.getSnapshot();
+
         // Select number of questions
-        int maxQuestions = category.equals("Mixed") ? quizManager.getTotalQuestions() : 
-                          quizManager.getQuestionsByCategory(category).size();
+        int maxQuestions = category.equals("Mixed") ? bank.size() : 
+                          bank.getQuestionsByCategory(category).size();
         
-        System.out.println("Available questions in " + category + ": " + maxQuestions);
+        console.println("Available questions in " + category + ": " + maxQuestions);
         int numberOfQuestions = getIntInput("How many questions do you want? (1-" + maxQuestions + "): ", 1, maxQuestions);
         
         // Create quiz
         List<Question> quizQuestions = category.equals("Mixed") ? 
-                                     quizManager.createMixedQuiz(numberOfQuestions) :
-                                     quizManager.createQuiz(category, numberOfQuestions);
+                                     quizManager.createMixedQuiz(bank, numberOfQuestions) :
+                                     quizManager.createQuiz(bank, category, numberOfQuestions);
         
         if (quizQuestions.isEmpty()) {
-            System.out.println("No questions available for the selected category!");
+            console.println("No questions available for the selected category!");
             return;
         }
         
         // Start the quiz
-        conductQuiz(playerName, category, quizQuestions);
+        conductQuiz(playerName, category, bank.getVersion(), quizQuestions);
     }
 
     /**
      * Conduct the actual quiz
      */
-    private void conductQuiz(String playerName, String category, List<Question> questions) {
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("🎯 QUIZ STARTED - " + category.toUpperCase());
-        System.out.println("Player: " + playerName);
-        System.out.println("Questions: " + questions.size());
-        System.out.println("=".repeat(60));
-        
-        QuizResult result = new QuizResult(playerName, category);
+    private void conductQuiz(String playerName, String category, long bankVersion, List<Question> questions) {
+        console.println("\n" + "=".repeat(60));
+        console.println("🎯 QUIZ STARTED - " + category.toUpperCase());
+        console.println("Player: " + playerName);
+        console.println("Questions: " + questions.size());
+        console.println("=".repeat(60));
+        
+        QuizResult result = new QuizResult(playerName, category, bankVersion, quizManager.getScoringEngine());
+        long sessionId = anomalyDetector.startSession(playerName, category);
         LocalDateTime startTime = LocalDateTime.now();
         
         for (int i = 0; i < questions.size(); i++) {
             Question question = questions.get(i);
             
-            System.out.println("\n" + "-".repeat(50));
-            System.out.println("Question " + (i + 1) + " of " + questions.size() + 
+            console.println("\n" + "-".repeat(50));
+            console.println("Question " + (i + 1) + " of " + questions.size() + 
                              " (Points: " + question.getPoints() + ")");
-            System.out.println("-".repeat(50));
-            System.out.println(question.displayQuestion());
+            console.println("-".repeat(50));
+            console.println(question.displayQuestion(locale));
             
             // Get user answer
-            int maxOptions = question.getOptions().size();
-            char selectedChar = getCharInput("Your answer (A-" + (char)('A' + maxOptions - 1) + "): ", 'A', (char)('A' + maxOptions - 1));
-            int selectedIndex = selectedChar - 'A';
-            String selectedAnswerText = question.getOptions().get(selectedIndex);
+            long askedAt = System.nanoTime();
+            long answer = getAnswerInput(question);
+            long answerMillis = (System.nanoTime() - askedAt) / 1_000_000;
             
             // Add result
-            result.addQuestionResult(question, selectedIndex, selectedAnswerText);
+            result.addAnswer(question, answer, answerMillis);
             
             // Show immediate feedback
-            if (question.isCorrect(selectedIndex)) {
-                System.out.println("✅ Correct! +" + question.getPoints() + " points");
+            QuizResult.QuestionResult graded = result.getQuestionResult(result.getQuestionResultCount() - 1);
+            anomalyDetector.onAnswer(sessionId, question, graded);
+            if (graded.isCorrect()) {
+                console.println("✅ Correct! +" + graded.getPointsEarned() + " points");
+            } else if (graded.getPointsEarned() > 0) {
+                console.println("🟡 Partly right! +" + graded.getPointsEarned() + " points. The full answer was: " +
+                                question.getCorrectAnswerText(locale));
             } else {
-                System.out.println("❌ Wrong! The correct answer was: " + question.getCorrectAnswerText());
+                console.println("❌ Wrong! The correct answer was: " + question.getCorrectAnswerText(locale));
             }
         }
         
@@ -182,72 +221,97 @@ public class OnlineQuizApp {
         
         // Add to history
         quizHistory.add(result);
+        PercentileRankTracker.Ranks ranks = rankTracker.recordAndRank(result);
+        anomalyDetector.endSession(sessionId);
         
         // Display results
-        displayQuizResults(result);
+        displayQuizResults(result, ranks);
     }
 
     /**
      * Display quiz results
      */
-    private void displayQuizResults(QuizResult result) {
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("🎉 QUIZ COMPLETED! 🎉");
-        System.out.println("=".repeat(60));
-        System.out.println("Player: " + result.getPlayerName());
-        System.out.println("Category: " + result.getCategory());
-        System.out.println("Score: " + result.getTotalScore() + "/" + result.getMaxPossibleScore());
-        System.out.println("Percentage: " + String.format("%.1f", result.getPercentageScore()) + "%");
-        System.out.println("Grade: " + result.getGrade());
-        System.out.println("Correct Answers: " + result.getCorrectAnswers() + "/" + result.getTotalQuestions());
-        System.out.println("Time Taken: " + formatTime(result.getTimeTakenSeconds()));
-        System.out.println("\n" + result.getPerformanceMessage());
-        System.out.println("=".repeat(60));
+    private void displayQuizResults(QuizResult result, PercentileRankTracker.Ranks ranks) {
+        console.println("\n" + "=".repeat(60));
+        console.println("🎉 QUIZ COMPLETED! 🎉");
+        console.println("=".repeat(60));
+        console.println("Player: " + result.getPlayerName());
+        console.println("Category: " + result.getCategory());
+        console.println("Score: " + result.getTotalScore() + "/" + result.getMaxPossibleScore());
+        console.println("Percentage: " + String.format("%.1f", result.getPercentageScore()) + "%");
+        console.println("Grade: " + result.getGrade());
+        console.println("Correct Answers: " + result.getCorrectAnswers() + "/" + result.getTotalQuestions());
+        console.println("Time Taken: " + formatTime(result.getTimeTakenSeconds()));
+        console.println("Percentile Rank: " + String.format("%.0f", ranks.getCategoryRank()) +
+                        " (among " + ranks.getCategoryAttempts() + " earlier attempts in " + result.getCategory() + ")");
+        console.println("Rank at this difficulty: " + String.format("%.0f", ranks.getDifficultyRank()) +
+                        " (among " + ranks.getDifficultyAttempts() + " earlier " + result.getCategory() + " quizzes at " +
+                        PercentileRankTracker.getQuizDifficulty(result) + " difficulty)");
+        console.println("\n" + result.getPerformanceMessage());
+        console.println("=".repeat(60));
         
         // Ask if user wants detailed report
-        System.out.print("\nWould you like to see a detailed report? (y/n): ");
-        String response = scanner.nextLine().trim().toLowerCase();
+        console.print("\nWould you like to see a detailed report? (y/n): ");
+        String response = console.readLine().trim().toLowerCase();
         if (response.equals("y") || response.equals("yes")) {
-            System.out.println("\n" + result.generateDetailedReport());
+            console.println("\n" + result.generateDetailedReport());
+        }
+    }
+
+    /**
+     * Select the language to show questions in
+     * Only asked when some questions in the bank are translated.
+     */
+    private void selectLanguage() {
+        List<QuizLocale> locales = quizManager.getSnapshot().getTranslatedLocales();
+        if (locales.isEmpty()) {
+            locale = null;
+            return;
+        }
+        console.println("\nAvailable Languages:");
+        console.println("1. Original");
+        for (int i = 0; i < locales.size(); i++) {
+            console.println((i + 2) + ". " + locales.get(i).getTag());
         }
+        int choice = getIntInput("Select language (1-" + (locales.size() + 1) + "): ", 1, locales.size() + 1);
+        locale = choice == 1 ? null : locales.get(choice - 2);
     }
 
     /**
      * Select quiz category
      */
     private String selectCategory() {
-        System.out.println("\nAvailable Categories:");
-        List<String> categories = new ArrayList<>(quizManager.getAvailableCategories());
-        categories.add("Mixed");
-        
-        for (int i = 0; i < categories.size(); i++) {
-            String cat = categories.get(i);
-            int questionCount = cat.equals("Mixed") ? quizManager.getTotalQuestions() : 
-                              quizManager.getQuestionsByCategory(cat).size();
-            System.out.println((i + 1) + ". " + cat + " (" + questionCount + " questions)");
+        console.println("\nAvailable Categories:");
+        QuestionBankSnapshot bank = quizManager.getSnapshot();
+        List<QuestionBankSnapshot.CategorySummary> summaries = bank.getCategorySummaries();
+        
+        for (int i = 0; i < summaries.size(); i++) {
+            QuestionBankSnapshot.CategorySummary summary = summaries.get(i);
+            console.println((i + 1) + ". " + summary.getCategory() + " (" + summary.getQuestionCount() + " questions)");
         }
+        console.println((summaries.size() + 1) + ". Mixed (" + bank.size() + " questions)");
         
-        int choice = getIntInput("Select category (1-" + categories.size() + "): ", 1, categories.size());
-        return categories.get(choice - 1);
+        int choice = getIntInput("Select category (1-" + (summaries.size() + 1) + "): ", 1, summaries.size() + 1);
+        return choice > summaries.size() ? "Mixed" : summaries.get(choice - 1).getCategory();
     }
 
     /**
      * View quiz history
      */
     private void viewQuizHistory() {
-        System.out.println("\n=== QUIZ HISTORY ===");
+        console.println("\n=== QUIZ HISTORY ===");
         
         if (quizHistory.isEmpty()) {
-            System.out.println("No quiz history available. Take a quiz first!");
+            console.println("No quiz history available. Take a quiz first!");
             return;
         }
         
-        System.out.println(String.format("%-15s %-15s %-10s %-12s %-8s %-20s", 
+        console.println(String.format("%-15s %-15s %-10s %-12s %-8s %-20s", 
                           "Player", "Category", "Score", "Percentage", "Grade", "Date"));
-        System.out.println("-".repeat(85));
+        console.println("-".repeat(85));
         
         for (QuizResult result : quizHistory) {
-            System.out.println(String.format("%-15s %-15s %-10s %-12s %-8s %-20s",
+            console.println(String.format("%-15s %-15s %-10s %-12s %-8s %-20s",
                               result.getPlayerName().length() > 14 ? result.getPlayerName().substring(0, 14) : result.getPlayerName(),
                               result.getCategory(),
                               result.getTotalScore() + "/" + result.getMaxPossibleScore(),
@@ -256,7 +320,7 @@ public class OnlineQuizApp {
                               result.getCompletionTime().toString().substring(0, 19)));
         }
         
-        System.out.println("\nTotal quizzes taken: " + quizHistory.size());
+        console.println("\nTotal quizzes taken: " + quizHistory.size());
         
         // Calculate average performance
         if (!quizHistory.isEmpty()) {
@@ -264,7 +328,7 @@ public class OnlineQuizApp {
                 .mapToDouble(QuizResult::getPercentageScore)
                 .average()
                 .orElse(0.0);
-            System.out.println("Average Performance: " + String.format("%.1f%%", avgPercentage));
+            console.println("Average Performance: " + String.format("%.1f%%", avgPercentage));
         }
     }
 
@@ -272,11 +336,11 @@ public class OnlineQuizApp {
      * Display statistics
      */
     private void displayStatistics() {
-        System.out.println("\n" + quizManager.getQuizStatistics());
+        console.println("\n" + quizManager.getQuizStatistics());
         
         if (!quizHistory.isEmpty()) {
-            System.out.println("PERFORMANCE STATISTICS:");
-            System.out.println("Total Quizzes Taken: " + quizHistory.size());
+            console.println("PERFORMANCE STATISTICS:");
+            console.println("Total Quizzes Taken: " + quizHistory.size());
             
             // Best performance
             QuizResult bestResult = quizHistory.stream()
@@ -284,7 +348,7 @@ public class OnlineQuizApp {
                 .orElse(null);
             
             if (bestResult != null) {
-                System.out.println("Best Performance: " + String.format("%.1f%%", bestResult.getPercentageScore()) + 
+                console.println("Best Performance: " + String.format("%.1f%%", bestResult.getPercentageScore()) + 
                                  " by " + bestResult.getPlayerName() + " in " + bestResult.getCategory());
             }
             
@@ -294,77 +358,130 @@ public class OnlineQuizApp {
                 resultsByCategory.computeIfAbsent(result.getCategory(), k -> new ArrayList<>()).add(result);
             }
             
-            System.out.println("\nPerformance by Category:");
+            console.println("\nPerformance by Category:");
             for (Map.Entry<String, List<QuizResult>> entry : resultsByCategory.entrySet()) {
                 double avgScore = entry.getValue().stream()
                     .mapToDouble(QuizResult::getPercentageScore)
                     .average()
                     .orElse(0.0);
-                System.out.println("- " + entry.getKey() + ": " + String.format("%.1f%%", avgScore) + 
+                console.println("- " + entry.getKey() + ": " + String.format("%.1f%%", avgScore) + 
                                  " (from " + entry.getValue().size() + " attempts)");
             }
         }
+        
+        List<AnswerAnomalyDetector.Flag> flags = anomalyDetector.getRecentFlags();
+        if (!flags.isEmpty()) {
+            console.println("\nFlagged for Review (" + anomalyDetector.getFlagCount() + " total):");
+            for (AnswerAnomalyDetector.Flag flag : flags) {
+                console.println("- " + flag);
+            }
+        }
     }
 
     /**
      * Search questions
      */
     private void searchQuestions() {
-        System.out.println("\n=== SEARCH QUESTIONS ===");
-        System.out.print("Enter search keyword: ");
-        String keyword = scanner.nextLine().trim();
+        console.println("\n=== SEARCH QUESTIONS ===");
+        console.print("Enter search keyword: ");
+        String keyword = console.readLine().trim();
         
         if (keyword.isEmpty()) {
-            System.out.println("Please enter a valid keyword!");
+            console.println("Please enter a valid keyword!");
             return;
         }
         
-        List<Question> results = quizManager.searchQuestions(keyword);
+        List<Question> results = quizManager.searchQuestions(keyword, locale);
         
         if (results.isEmpty()) {
-            System.out.println("No questions found matching: " + keyword);
+            console.println("No questions found matching: " + keyword);
             return;
         }
         
-        System.out.println("\nFound " + results.size() + " question(s) matching '" + keyword + "':");
-        System.out.println("-".repeat(60));
+        console.println("\nFound " + results.size() + " question(s) matching '" + keyword + "':");
+        console.println("-".repeat(60));
         
         for (int i = 0; i < results.size(); i++) {
             Question q = results.get(i);
-            System.out.println((i + 1) + ". [" + q.getCategory() + "] " + q.getQuestionText());
-            System.out.println("   Answer: " + q.getCorrectAnswerText() + " (Points: " + q.getPoints() + ")");
-            System.out.println();
+            console.println((i + 1) + ". [" + q.getCategory() + "] " + q.getQuestionText(locale));
+            console.println("   Answer: " + q.getCorrectAnswerText(locale) + " (Points: " + q.getPoints() + ")");
+            console.println();
         }
     }
 
     /**
      * Practice mode - show questions with immediate answers
+     * Questions the player is due to review come first, topped up with new ones
      */
     private void practiceMode() {
-        System.out.println("\n=== PRACTICE MODE ===");
+        console.println("\n=== PRACTICE MODE ===");
+        console.print("Enter your name: ");
+        String playerName = console.readLine().trim();
+        if (playerName.isEmpty()) {
+            playerName = "Anonymous";
+        }
+
+        selectLanguage();
         String category = selectCategory();
         if (category == null) return;
-        
-        List<Question> questions = category.equals("Mixed") ? 
-                                 quizManager.createMixedQuiz(5) :
-                                 quizManager.createQuiz(category, 5);
+        boolean mixed = category.equals("Mixed");
+
+        List<Question> questions = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        List<Integer> dueIds = practiceScheduler.getDueQuestions(playerName, now,
+                PRACTICE_SESSION_SIZE, id -> mixed || quizManager.getQuestionById(id).getCategory().equals(category));
+        for (int id : dueIds) {
+            questions.add(quizManager.getQuestionById(id));
+        }
+        int dueCount = questions.size();
+
+        // Top up with cards the player has never practiced; reviewing a card
+        // before it is due would stretch its interval for nothing
+        QuestionBankSnapshot bank = quizManager.getSnapshot();
+        addNewPracticeQuestions(questions, mixed ? bank.getQuestions() : bank.getQuestionsByCategory(category),
+                playerName, now);
         
         if (questions.isEmpty()) {
-            System.out.println("No questions available for practice!");
+            console.println("Nothing to practice right now - every question in " + category + " is scheduled for later!");
             return;
         }
         
-        System.out.println("\nPracticing with " + questions.size() + " questions from " + category);
-        System.out.println("Press Enter after each question to see the answer...\n");
+        console.println("\nPracticing with " + questions.size() + " questions from " + category +
+                         (dueCount > 0 ? " (" + dueCount + " due for review)" : ""));
+        console.println("Press Enter after each question to see the answer...\n");
         
         for (int i = 0; i < questions.size(); i++) {
             Question q = questions.get(i);
-            System.out.println("Question " + (i + 1) + ":");
-            System.out.println(q.displayQuestion());
-            System.out.print("Press Enter to see the answer...");
-            scanner.nextLine();
-            System.out.println("✅ Correct Answer: " + q.getCorrectAnswerText());
-            System.out.println("Points: " + q.getPoints() + "\n");
+            console.println("Question " + (i + 1) + ":");
+            console.println(q.displayQuestion(locale));
+            console.print("Press Enter to see the answer...");
+            console.readLine();
+            console.println("✅ Correct Answer: " + q.getCorrectAnswerText(locale));
+            console.println("Points: " + q.getPoints());
+            console.print("Did you get it right? (y/n): ");
+            String response = console.readLine().trim().toLowerCase();
+            boolean correct = response.equals("y") || response.equals("yes");
+            practiceScheduler.recordOutcome(playerName, q.getId(), correct);
+            console.println();
+        }
+    }
+
+    // Sample the pool instead of shuffling it, so a session costs the same on any bank size.
+    // A pool within the draw budget is scanned in full from a random start, so no new card is missed.
+    private void addNewPracticeQuestions(List<Question> questions, List<Question> pool, String playerName, long now) {
+        int poolSize = pool.size();
+        if (poolSize == 0) {
+            return;
+        }
+        Random random = ThreadLocalRandom.current();
+        boolean scanAll = poolSize <= MAX_PRACTICE_DRAWS;
+        int start = random.nextInt(poolSize);
+        int draws = scanAll ? poolSize : MAX_PRACTICE_DRAWS;
+        for (int i = 0; i < draws && questions.size() < PRACTICE_SESSION_SIZE; i++) {
+            Question q = pool.get(scanAll ? (start + i) % poolSize : random.nextInt(poolSize));
+            if (!questions.contains(q) && practiceScheduler.isNewOrDue(playerName, q.getId(), now)) {
+                questions.add(q);
+            }
         }
     }
 
@@ -372,48 +489,48 @@ public class OnlineQuizApp {
      * Display help information
      */
     private void displayHelp() {
-        System.out.println("\n=== HELP & INSTRUCTIONS ===");
-        System.out.println("🎯 How to use the Online Quiz App:");
-        System.out.println();
-        System.out.println("1. START NEW QUIZ:");
-        System.out.println("   - Enter your name");
-        System.out.println("   - Choose a category or Mixed for random questions");
-        System.out.println("   - Select number of questions");
-        System.out.println("   - Answer each question by selecting A, B, C, or D");
-        System.out.println();
-        System.out.println("2. SCORING SYSTEM:");
-        System.out.println("   - Each question has different point values");
-        System.out.println("   - Easy questions: 5 points");
-        System.out.println("   - Medium questions: 10 points");
-        System.out.println("   - Hard questions: 15+ points");
-        System.out.println();
-        System.out.println("3. GRADING SCALE:");
-        System.out.println("   - A+: 90-100%  - A: 80-89%  - B: 70-79%");
-        System.out.println("   - C: 60-69%    - D: 50-59%  - F: Below 50%");
-        System.out.println();
-        System.out.println("4. FEATURES:");
-        System.out.println("   - Quiz History: Track all your attempts");
-        System.out.println("   - Statistics: View performance analytics");
-        System.out.println("   - Search: Find questions by keyword");
-        System.out.println("   - Practice Mode: Study without scoring");
-        System.out.println();
-        System.out.println("Available Categories: " + String.join(", ", quizManager.getAvailableCategories()));
+        console.println("\n=== HELP & INSTRUCTIONS ===");
+        console.println("🎯 How to use the Online Quiz App:");
+        console.println();
+        console.println("1. START NEW QUIZ:");
+        console.println("   - Enter your name");
+        console.println("   - Choose a category or Mixed for random questions");
+        console.println("   - Select number of questions");
+        console.println("   - Answer each question by selecting A, B, C, or D");
+        console.println();
+        console.println("2. SCORING SYSTEM:");
+        console.println("   - Each question has different point values");
+        console.println("   - Easy questions: 5 points");
+        console.println("   - Medium questions: 10 points");
+        console.println("   - Hard questions: 15+ points");
+        console.println();
+        console.println("3. GRADING SCALE:");
+        console.println("   - A+: 90-100%  - A: 80-89%  - B: 70-79%");
+        console.println("   - C: 60-69%    - D: 50-59%  - F: Below 50%");
+        console.println();
+        console.println("4. FEATURES:");
+        console.println("   - Quiz History: Track all your attempts");
+        console.println("   - Statistics: View performance analytics");
+        console.println("   - Search: Find questions by keyword");
+        console.println("   - Practice Mode: Study without scoring");
+        console.println();
+        console.println("Available Categories: " + String.join(", ", quizManager.getAvailableCategories()));
     }
 
     /**
      * Display goodbye message
      */
     private void displayGoodbye() {
-        System.out.println("\n" + "=".repeat(60));
-        System.out.println("           🎓 THANK YOU FOR USING QUIZ APP! 🎓");
-        System.out.println("=".repeat(60));
-        System.out.println("Keep learning and improving your knowledge!");
+        console.println("\n" + "=".repeat(60));
+        console.println("           🎓 THANK YOU FOR USING QUIZ APP! 🎓");
+        console.println("=".repeat(60));
+        console.println("Keep learning and improving your knowledge!");
         if (!quizHistory.isEmpty()) {
             QuizResult lastResult = quizHistory.get(quizHistory.size() - 1);
-            System.out.println("Your last score: " + String.format("%.1f%%", lastResult.getPercentageScore()) + 
+            console.println("Your last score: " + String.format("%.1f%%", lastResult.getPercentageScore()) + 
                              " (" + lastResult.getGrade() + ")");
         }
-        System.out.println("=".repeat(60));
+        console.println("=".repeat(60));
     }
 
     /**
@@ -421,33 +538,30 @@ public class OnlineQuizApp {
      */
     private int getIntInput(String prompt, int min, int max) {
         while (true) {
-            System.out.print(prompt);
+            console.print(prompt);
             try {
-                int value = Integer.parseInt(scanner.nextLine().trim());
+                int value = Integer.parseInt(console.readLine().trim());
                 if (value >= min && value <= max) {
                     return value;
                 }
-                System.out.println("Please enter a number between " + min + " and " + max + "!");
+                console.println("Please enter a number between " + min + " and " + max + "!");
             } catch (NumberFormatException e) {
-                System.out.println("Please enter a valid number!");
+                console.println("Please enter a valid number!");
             }
         }
     }
 
     /**
-     * Get character input with validation
+     * Read an answer in the question type's format, asking again until it parses
      */
-    private char getCharInput(String prompt, char min, char max) {
+    private long getAnswerInput(Question question) {
         while (true) {
-            System.out.print(prompt);
-            String input = scanner.nextLine().trim().toUpperCase();
-            if (input.length() == 1) {
-                char ch = input.charAt(0);
-                if (ch >= min && ch <= max) {
-                    return ch;
-                }
+            console.print(question.getAnswerPrompt());
+            try {
+                return question.parseAnswer(console.readLine());
+            } catch (IllegalArgumentException e) {
+                console.println(e.getMessage());
             }
-            System.out.println("Please enter a letter between " + min + " and " + max + "!");
         }
     }
 
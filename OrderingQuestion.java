@@ -0,0 +1,214 @@
+import java.util.List;
+
+/**
+ * OrderingQuestion class - put the options in the right order
+ * An order is packed into a long, four bits per position holding the option
+ * index (position 0 in the lowest bits), so up to 16 items fit and checking an
+ * answer is a single comparison.
+ */
+public class OrderingQuestion extends Question {
+    public static final int MAX_ITEMS = 16;
+
+    private long correctOrder;
+
+    /**
+     * Constructor
+     * @param options Items in the order they are displayed
+     * @param correctOrder Option indexes in the right order, e.g. {2, 0, 1}
+     */
+    public OrderingQuestion(String questionText, List<String> options, int[] correctOrder, String category, int points) {
+        super(questionText, options, correctOrder.length > 0 ? correctOrder[0] : -1, category, points);
+        this.correctOrder = packOrder(correctOrder);
+    }
+
+    // Copy constructor; the copy is never frozen
+    public OrderingQuestion(OrderingQuestion other) {
+        super(other);
+        this.correctOrder = other.correctOrder;
+    }
+
+    /**
+     * Pack option indexes, in order, into an answer
+     */
+    public static long packOrder(int... order) {
+        if (order.length > MAX_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_ITEMS + " items can be ordered");
+        }
+        long packed = 0;
+        for (int position = 0; position < order.length; position++) {
+            if (order[position] < 0 || order[position] >= MAX_ITEMS) {
+                throw new IllegalArgumentException("Option index out of range: " + order[position]);
+            }
+            packed |= (long) order[position] << (position * 4);
+        }
+        return packed;
+    }
+
+    /**
+     * Option index at a position of a packed order
+     */
+    public static int itemAt(long order, int position) {
+        return (int) (order >>> (position * 4)) & 0xF;
+    }
+
+    @Override
+    public Question copy() {
+        return new OrderingQuestion(this);
+    }
+
+    // Getters
+    @Override
+    public Type getType() { return Type.ORDERING; }
+    public long getCorrectOrder() { return correctOrder; }
+
+    /**
+     * @return The option that comes first in the right order, or -1 if there are no options
+     */
+    @Override
+    public int getCorrectAnswerIndex() {
+        return getOptionCount() == 0 ? -1 : itemAt(correctOrder, 0);
+    }
+
+    // Setters (not allowed once the question is frozen)
+    public void setCorrectOrder(int... order) { checkNotFrozen(); this.correctOrder = packOrder(order); }
+
+    /**
+     * Move an option to the front of the right order, keeping the others in
+     * their current relative order
+     * @throws IllegalArgumentException if the index is out of range
+     */
+    @Override
+    public void setCorrectAnswerIndex(int correctAnswerIndex) {
+        int optionCount = getOptionCount();
+        if (correctAnswerIndex < 0 || correctAnswerIndex >= optionCount) {
+            throw new IllegalArgumentException("Option index out of range: " + correctAnswerIndex);
+        }
+        int[] order = new int[optionCount];
+        order[0] = correctAnswerIndex;
+        for (int position = 0, next = 1; position < optionCount && next < optionCount; position++) {
+            int item = itemAt(correctOrder, position);
+            if (item != correctAnswerIndex) {
+                order[next++] = item;
+            }
+        }
+        setCorrectOrder(order);
+    }
+
+    /**
+     * @param answer A packed order (see packOrder) using every option exactly once
+     * @throws IllegalArgumentException if the answer is not such an order
+     */
+    @Override
+    public void setCorrectAnswer(long answer) {
+        checkNotFrozen();
+        if (!isFullOrder(answer, getOptionCount())) {
+            throw new IllegalArgumentException("Not an order of all " + getOptionCount() + " options: " + Long.toHexString(answer));
+        }
+        this.correctOrder = answer;
+    }
+
+    /**
+     * One option on its own is never a full order
+     * @throws IllegalArgumentException always; use isCorrectAnswer with an encoded answer
+     */
+    @Override
+    public boolean isCorrect(int answerIndex) {
+        throw new IllegalArgumentException("Use isCorrectAnswer for " + getType() + " questions");
+    }
+
+    @Override
+    public boolean isCorrectAnswer(long answer) {
+        return answer == correctOrder;
+    }
+
+    @Override
+    public long getCorrectAnswer() {
+        return correctOrder;
+    }
+
+    /**
+     * @param input Every option letter once, in order, e.g. "CAB" or "C, A, B"
+     */
+    @Override
+    public long parseAnswer(String input) {
+        int optionCount = getOptionCount();
+        long packed = 0;
+        int used = 0;
+        int position = 0;
+        for (int i = 0; i < input.length(); i++) {
+            char ch = Character.toUpperCase(input.charAt(i));
+            if (ch == ',' || ch == ' ') {
+                continue;
+            }
+            int index = ch - 'A';
+            if (index < 0 || index >= optionCount || (used & (1 << index)) != 0 || position >= optionCount) {
+                throw new IllegalArgumentException("Please enter each letter A-" + (char) ('A' + optionCount - 1) + " exactly once!");
+            }
+            used |= 1 << index;
+            packed |= (long) index << (position++ * 4);
+        }
+        if (position != optionCount) {
+            throw new IllegalArgumentException("Please enter each letter A-" + (char) ('A' + optionCount - 1) + " exactly once!");
+        }
+        return packed;
+    }
+
+    @Override
+    public String getAnswerPrompt() {
+        return "Your order (all letters A-" + (char) ('A' + getOptionCount() - 1) + ", e.g. CAB): ";
+    }
+
+    @Override
+    public String formatAnswer(long answer, QuizLocale locale) {
+        StringBuilder sb = new StringBuilder();
+        for (int position = 0; position < getOptionCount(); position++) {
+            if (position > 0) {
+                sb.append(" > ");
+            }
+            sb.append(getOptionText(itemAt(answer, position), locale));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String getCorrectAnswerText(QuizLocale locale) {
+        return formatAnswer(correctOrder, locale);
+    }
+
+    @Override
+    public String displayQuestion(QuizLocale locale) {
+        return super.displayQuestion(locale) + "(Put all options in order)\n";
+    }
+
+    @Override
+    public boolean isValid() {
+        int optionCount = getOptionCount();
+        return hasValidBasics() && optionCount >= 2 && isFullOrder(correctOrder, optionCount);
+    }
+
+    // True if the packed order lists every one of the options exactly once
+    private static boolean isFullOrder(long order, int optionCount) {
+        if (optionCount > MAX_ITEMS || (optionCount < MAX_ITEMS && (order >>> (optionCount * 4)) != 0)) {
+            return false;
+        }
+        int used = 0;
+        for (int position = 0; position < optionCount; position++) {
+            int index = itemAt(order, position);
+            if (index >= optionCount || (used & (1 << index)) != 0) {
+                return false;
+            }
+            used |= 1 << index;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return super.equals(obj) && correctOrder == ((OrderingQuestion) obj).correctOrder;
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() * 31 + Long.hashCode(correctOrder);
+    }
+}
@@ -0,0 +1,110 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * PercentileRankTracker class to rank finished quizzes against all attempts
+ * Keeps one ScoreSketch per category and one per category and difficulty.
+ * Rank a quiz before recording it (see recordAndRank), so it is compared only
+ * with earlier attempts and not with itself.
+ * Safe to update and query from many threads.
+ */
+public class PercentileRankTracker {
+    private final Map<String, ScoreSketch> sketchesByCategory;
+    private final Map<String, ScoreSketch> sketchesByCategoryAndDifficulty;
+
+    public PercentileRankTracker() {
+        this.sketchesByCategory = new ConcurrentHashMap<>();
+        this.sketchesByCategoryAndDifficulty = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Add a finished quiz to the running statistics
+     */
+    public void record(QuizResult result) {
+        double percentage = result.getPercentageScore();
+        sketchesByCategory.computeIfAbsent(result.getCategory(), k -> new ScoreSketch()).add(percentage);
+        sketchesByCategoryAndDifficulty.computeIfAbsent(difficultyKey(result), k -> new ScoreSketch()).add(percentage);
+    }
+
+    /**
+     * Rank a finished quiz against the attempts recorded before it, then record it
+     * @return Ranks computed without the quiz itself, so a first attempt ranks 100,
+     *         with the number of earlier attempts each rank was taken over
+     */
+    public Ranks recordAndRank(QuizResult result) {
+        ScoreSketch category = sketchesByCategory.get(result.getCategory());
+        ScoreSketch difficulty = sketchesByCategoryAndDifficulty.get(difficultyKey(result));
+        Ranks ranks = new Ranks(getCategoryRank(result), category == null ? 0 : category.getCount(),
+                                getDifficultyRank(result), difficulty == null ? 0 : difficulty.getCount());
+        record(result);
+        return ranks;
+    }
+
+    /**
+     * Percentile rank of a result within its category
+     * @return Rank from 0 to 100; 100 if no attempts have been recorded yet
+     */
+    public double getCategoryRank(QuizResult result) {
+        ScoreSketch sketch = sketchesByCategory.get(result.getCategory());
+        return sketch == null ? 100.0 : sketch.percentileRank(result.getPercentageScore());
+    }
+
+    /**
+     * Percentile rank of a result among quizzes of the same category and difficulty
+     * @return Rank from 0 to 100; 100 if no such attempts have been recorded yet
+     */
+    public double getDifficultyRank(QuizResult result) {
+        ScoreSketch sketch = sketchesByCategoryAndDifficulty.get(difficultyKey(result));
+        return sketch == null ? 100.0 : sketch.percentileRank(result.getPercentageScore());
+    }
+
+    public long getAttemptCount(String category) {
+        ScoreSketch sketch = sketchesByCategory.get(category);
+        return sketch == null ? 0 : sketch.getCount();
+    }
+
+    /**
+     * Get the sketch for a category, e.g. to merge it elsewhere
+     * @return The live sketch, or null if the category has no attempts
+     */
+    public ScoreSketch getCategorySketch(String category) {
+        return sketchesByCategory.get(category);
+    }
+
+    /**
+     * Difficulty of a whole quiz, from its average points per question
+     */
+    public static String getQuizDifficulty(QuizResult result) {
+        if (result.getTotalQuestions() == 0) return "unknown";
+        int averagePoints = Math.round((float) result.getMaxPossibleScore() / result.getTotalQuestions());
+        String difficulty = QuizManager.getDifficulty(averagePoints);
+        return difficulty == null ? "unknown" : difficulty;
+    }
+
+    // A quiz's percentile ranks, taken before it was recorded
+    public static class Ranks {
+        private final double categoryRank;
+        private final long categoryAttempts;
+        private final double difficultyRank;
+        private final long difficultyAttempts;
+
+        public Ranks(double categoryRank, long categoryAttempts, double difficultyRank, long difficultyAttempts) {
+            this.categoryRank = categoryRank;
+            this.categoryAttempts = categoryAttempts;
+            this.difficultyRank = difficultyRank;
+            this.difficultyAttempts = difficultyAttempts;
+        }
+
+        // Getters
+        public double getCategoryRank() { return categoryRank; }
+        // Earlier attempts in the category that the rank compares against
+        public long getCategoryAttempts() { return categoryAttempts; }
+        public double getDifficultyRank() { return difficultyRank; }
+        // Earlier attempts at the same category and difficulty
+        public long getDifficultyAttempts() { return difficultyAttempts; }
+    }
+
+    private static String difficultyKey(QuizResult result) {
+        return result.getCategory() + "|" + getQuizDifficulty(result);
+    }
+}
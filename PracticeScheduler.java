@@ -0,0 +1,330 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+/**
+ * PracticeScheduler class for spaced-repetition practice
+ * Applies the SM-2 algorithm to each (player, question) card and keeps a
+ * per-player priority queue ordered by due time. Cards live in primitive
+ * arrays keyed by question ID so large decks stay compact in memory.
+ * Thread-safe: each player's deck is locked while it is read or updated.
+ */
+public class PracticeScheduler {
+    private static final int MILLIS_PER_MINUTE = 60_000;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    // A missed card comes back in the same session after this delay
+    private static final int RELEARN_DELAY_MINUTES = 10;
+    // Ease factor stored as hundredths (250 = 2.5)
+    private static final short INITIAL_EASE = 250;
+    private static final short MIN_EASE = 130;
+    // Intervals stop growing after about a century
+    private static final int MAX_INTERVAL_DAYS = 36_500;
+
+    private Map<String, Deck> decksByPlayer;
+
+    public PracticeScheduler() {
+        this.decksByPlayer = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Record a practice outcome with an SM-2 recall quality
+     * @param quality 0 (blackout) to 5 (perfect recall); 3 and above counts as remembered
+     * @param nowMillis Current time in epoch milliseconds
+     */
+    public void recordOutcome(String playerName, int questionId, int quality, long nowMillis) {
+        if (quality < 0 || quality > 5) {
+            throw new IllegalArgumentException("Quality must be between 0 and 5");
+        }
+        Deck deck = decksByPlayer.computeIfAbsent(playerName, k -> new Deck());
+        synchronized (deck) {
+            deck.review(questionId, quality, toMinutes(nowMillis));
+        }
+    }
+
+    /**
+     * Record a practice outcome as simply right or wrong
+     */
+    public void recordOutcome(String playerName, int questionId, boolean correct, long nowMillis) {
+        recordOutcome(playerName, questionId, correct ? 4 : 1, nowMillis);
+    }
+
+    public void recordOutcome(String playerName, int questionId, boolean correct) {
+        recordOutcome(playerName, questionId, correct, System.currentTimeMillis());
+    }
+
+    /**
+     * Get the most overdue question for a player
+     * @return Question ID, or -1 if nothing is due yet
+     */
+    public int nextDue(String playerName, long nowMillis) {
+        Deck deck = decksByPlayer.get(playerName);
+        if (deck == null) return -1;
+        synchronized (deck) {
+            return deck.peekDue(toMinutes(nowMillis));
+        }
+    }
+
+    /**
+     * Get up to {@code limit} due questions, most overdue first, without
+     * changing the schedule
+     * @param filter Only question IDs accepted by this filter are returned
+     */
+    public List<Integer> getDueQuestions(String playerName, long nowMillis, int limit, IntPredicate filter) {
+        Deck deck = decksByPlayer.get(playerName);
+        if (deck == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        synchronized (deck) {
+            return deck.collectDue(toMinutes(nowMillis), limit, filter);
+        }
+    }
+
+    public List<Integer> getDueQuestions(String playerName, long nowMillis, int limit) {
+        return getDueQuestions(playerName, nowMillis, limit, id -> true);
+    }
+
+    /**
+     * Get the due time of a card
+     * @return Epoch milliseconds, or -1 if the player has never practiced the question
+     */
+    public long getDueTime(String playerName, int questionId) {
+        Deck deck = decksByPlayer.get(playerName);
+        if (deck == null) return -1;
+        synchronized (deck) {
+            int slot = deck.slotOf(questionId);
+            return slot < 0 ? -1 : (long) deck.due[slot] * MILLIS_PER_MINUTE;
+        }
+    }
+
+    /**
+     * Check whether a question should be practiced now
+     * @return true if the player has never practiced it or it is due, false if it
+     *         is scheduled for later
+     */
+    public boolean isNewOrDue(String playerName, int questionId, long nowMillis) {
+        return getDueTime(playerName, questionId) <= nowMillis;
+    }
+
+    /**
+     * Get the number of cards a player has in their deck
+     */
+    public int getCardCount(String playerName) {
+        Deck deck = decksByPlayer.get(playerName);
+        if (deck == null) return 0;
+        synchronized (deck) {
+            return deck.size;
+        }
+    }
+
+    private static int toMinutes(long millis) {
+        return (int) (millis / MILLIS_PER_MINUTE);
+    }
+
+    // One player's cards: parallel arrays indexed by slot, plus a binary min-heap of slots by due time
+    // Callers hold the deck's monitor
+    private static class Deck {
+        private int size;
+        private int[] questionIds = new int[16];
+        private short[] ease = new short[16];
+        private short[] repetitions = new short[16];
+        private int[] intervalDays = new int[16];
+        private int[] due = new int[16];
+        private int[] heapPosition = new int[16];
+        private int[] heap = new int[16];
+
+        // Open-addressing map from question ID to slot; stores slot + 1 so 0 means empty
+        private int[] tableKeys = new int[32];
+        private int[] tableSlots = new int[32];
+
+        void review(int questionId, int quality, int nowMinutes) {
+            int slot = slotOf(questionId);
+            if (slot < 0) {
+                slot = addCard(questionId);
+            }
+
+            if (quality >= 3) {
+                if (repetitions[slot] == 0) {
+                    intervalDays[slot] = 1;
+                } else if (repetitions[slot] == 1) {
+                    intervalDays[slot] = 6;
+                } else {
+                    intervalDays[slot] = Math.min(MAX_INTERVAL_DAYS,
+                            Math.max(1, Math.round(intervalDays[slot] * ease[slot] / 100f)));
+                }
+                if (repetitions[slot] < Short.MAX_VALUE) {
+                    repetitions[slot]++;
+                }
+                // Saturate rather than wrap to a due time in the past
+                due[slot] = (int) Math.min(Integer.MAX_VALUE, (long) nowMinutes + (long) intervalDays[slot] * MINUTES_PER_DAY);
+            } else {
+                repetitions[slot] = 0;
+                intervalDays[slot] = 1;
+                due[slot] = nowMinutes + RELEARN_DELAY_MINUTES;
+            }
+
+            int missed = 5 - quality;
+            int newEase = ease[slot] + (10 - missed * (8 + missed * 2));
+            ease[slot] = (short) Math.max(MIN_EASE, newEase);
+
+            // Due time only moves forward after a review
+            siftDown(heapPosition[slot]);
+            siftUp(heapPosition[slot]);
+        }
+
+        int peekDue(int nowMinutes) {
+            if (size == 0 || due[heap[0]] > nowMinutes) {
+                return -1;
+            }
+            return questionIds[heap[0]];
+        }
+
+        // Walk the heap in due order using a small frontier heap of heap positions
+        List<Integer> collectDue(int nowMinutes, int limit, IntPredicate filter) {
+            List<Integer> result = new ArrayList<>();
+            int[] frontier = new int[16];
+            int frontierSize = 0;
+            if (size > 0 && due[heap[0]] <= nowMinutes) {
+                frontier[frontierSize++] = 0;
+            }
+            while (frontierSize > 0 && result.size() < limit) {
+                int position = frontier[0];
+                frontier[0] = frontier[--frontierSize];
+                frontierSiftDown(frontier, frontierSize, 0);
+
+                int slot = heap[position];
+                if (filter.test(questionIds[slot])) {
+                    result.add(questionIds[slot]);
+                }
+                for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                    if (due[heap[child]] <= nowMinutes) {
+                        if (frontierSize == frontier.length) {
+                            frontier = Arrays.copyOf(frontier, frontierSize * 2);
+                        }
+                        frontier[frontierSize] = child;
+                        frontierSiftUp(frontier, frontierSize++);
+                    }
+                }
+            }
+            return result;
+        }
+
+        int slotOf(int questionId) {
+            int mask = tableKeys.length - 1;
+            for (int i = hash(questionId) & mask; ; i = (i + 1) & mask) {
+                if (tableSlots[i] == 0) return -1;
+                if (tableKeys[i] == questionId) return tableSlots[i] - 1;
+            }
+        }
+
+        private int addCard(int questionId) {
+            if (size == questionIds.length) {
+                int capacity = size * 2;
+                questionIds = Arrays.copyOf(questionIds, capacity);
+                ease = Arrays.copyOf(ease, capacity);
+                repetitions = Arrays.copyOf(repetitions, capacity);
+                intervalDays = Arrays.copyOf(intervalDays, capacity);
+                due = Arrays.copyOf(due, capacity);
+                heapPosition = Arrays.copyOf(heapPosition, capacity);
+                heap = Arrays.copyOf(heap, capacity);
+            }
+            int slot = size++;
+            questionIds[slot] = questionId;
+            ease[slot] = INITIAL_EASE;
+            repetitions[slot] = 0;
+            intervalDays[slot] = 0;
+            due[slot] = Integer.MIN_VALUE;
+            heap[slot] = slot;
+            heapPosition[slot] = slot;
+            siftUp(slot);
+
+            if (size * 2 > tableKeys.length) {
+                rehash(tableKeys.length * 2);
+            }
+            insertIntoTable(questionId, slot);
+            return slot;
+        }
+
+        private void rehash(int capacity) {
+            tableKeys = new int[capacity];
+            tableSlots = new int[capacity];
+            for (int slot = 0; slot < size - 1; slot++) {
+                insertIntoTable(questionIds[slot], slot);
+            }
+        }
+
+        private void insertIntoTable(int questionId, int slot) {
+            int mask = tableKeys.length - 1;
+            int i = hash(questionId) & mask;
+            while (tableSlots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            tableKeys[i] = questionId;
+            tableSlots[i] = slot + 1;
+        }
+
+        private void siftUp(int position) {
+            int slot = heap[position];
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (due[heap[parent]] <= due[slot]) break;
+                heap[position] = heap[parent];
+                heapPosition[heap[position]] = position;
+                position = parent;
+            }
+            heap[position] = slot;
+            heapPosition[slot] = position;
+        }
+
+        private void siftDown(int position) {
+            int slot = heap[position];
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) break;
+                if (child + 1 < size && due[heap[child + 1]] < due[heap[child]]) {
+                    child++;
+                }
+                if (due[slot] <= due[heap[child]]) break;
+                heap[position] = heap[child];
+                heapPosition[heap[position]] = position;
+                position = child;
+            }
+            heap[position] = slot;
+            heapPosition[slot] = position;
+        }
+
+        private void frontierSiftUp(int[] frontier, int index) {
+            int value = frontier[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (due[heap[frontier[parent]]] <= due[heap[value]]) break;
+                frontier[index] = frontier[parent];
+                index = parent;
+            }
+            frontier[index] = value;
+        }
+
+        private void frontierSiftDown(int[] frontier, int frontierSize, int index) {
+            if (frontierSize == 0) return;
+            int value = frontier[index];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= frontierSize) break;
+                if (child + 1 < frontierSize && due[heap[frontier[child + 1]]] < due[heap[frontier[child]]]) {
+                    child++;
+                }
+                if (due[heap[value]] <= due[heap[frontier[child]]]) break;
+                frontier[index] = frontier[child];
+                index = child;
+            }
+            frontier[index] = value;
+        }
+
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -1,24 +1,48 @@
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Objects;
 
 /**
  * Question class representing a quiz question
- * Supports multiple choice questions with validation
+ * Supports multiple choice questions with validation. This base class is the
+ * single-answer type; MultiSelectQuestion, NumericQuestion and OrderingQuestion
+ * extend it. Every type encodes a player's answer in a primitive long (see
+ * parseAnswer), so checking and recording answers never boxes or allocates.
+ * The text can be translated (see addTranslation); every display method has
+ * a QuizLocale variant, where a null locale means the original text. Changing
+ * the text or options drops all translations, since they no longer match.
  */
 public class Question {
+    // The kinds of question, for code that needs to tell them apart
+    public enum Type { SINGLE_CHOICE, MULTI_SELECT, NUMERIC, ORDERING }
+
+    private int id;
     private String questionText;
     private List<String> options;
     private int correctAnswerIndex;
     private String category;
     private int points;
+    private QuestionTranslations translations;
+    // Bank version that published this version of the question; 0 until published
+    private long publishedVersion;
+    private boolean frozen;
 
     // Constructor
     public Question(String questionText, List<String> options, int correctAnswerIndex, String category, int points) {
+        this.id = -1;
         this.questionText = questionText;
         this.options = new ArrayList<>(options);
         this.correctAnswerIndex = correctAnswerIndex;
         this.category = category;
         this.points = points;
+        this.translations = QuestionTranslations.NONE;
+    }
+
+    // Copy constructor; the copy is never frozen but shares the immutable translations
+    public Question(Question other) {
+        this(other.questionText, other.options, other.correctAnswerIndex, other.category, other.points);
+        this.id = other.id;
+        this.translations = other.translations;
     }
 
     // Constructor with default points
@@ -26,22 +50,102 @@ public class Question {
         this(questionText, options, correctAnswerIndex, category, 10);
     }
 
+    /**
+     * Make an unfrozen copy of the same type
+     */
+    public Question copy() {
+        return new Question(this);
+    }
+
     // Getters
+    public Type getType() { return Type.SINGLE_CHOICE; }
+    public int getId() { return id; }
     public String getQuestionText() { return questionText; }
     public List<String> getOptions() { return new ArrayList<>(options); }
+    public int getOptionCount() { return options.size(); }
     public int getCorrectAnswerIndex() { return correctAnswerIndex; }
     public String getCategory() { return category; }
     public int getPoints() { return points; }
+    public QuestionTranslations getTranslations() { return translations; }
+    public long getPublishedVersion() { return publishedVersion; }
 
-    // Setters
-    public void setQuestionText(String questionText) { this.questionText = questionText; }
-    public void setOptions(List<String> options) { this.options = new ArrayList<>(options); }
-    public void setCorrectAnswerIndex(int correctAnswerIndex) { this.correctAnswerIndex = correctAnswerIndex; }
-    public void setCategory(String category) { this.category = category; }
-    public void setPoints(int points) { this.points = points; }
+    public boolean isFrozen() { return frozen; }
+
+    // Setters (not allowed once the question is frozen)
+    public void setId(int id) { checkNotFrozen(); this.id = id; }
+    // Translations of the old text or options would be stale, so an edit drops them
+    public void setQuestionText(String questionText) {
+        checkNotFrozen();
+        if (!Objects.equals(questionText, this.questionText)) {
+            this.translations = QuestionTranslations.NONE;
+        }
+        this.questionText = questionText;
+    }
+    public void setOptions(List<String> options) {
+        checkNotFrozen();
+        if (!options.equals(this.options)) {
+            this.translations = QuestionTranslations.NONE;
+        }
+        this.options = new ArrayList<>(options);
+    }
+    // Other types map the index onto their own answer; setCorrectAnswer sets any type's full answer
+    public void setCorrectAnswerIndex(int correctAnswerIndex) { checkNotFrozen(); this.correctAnswerIndex = correctAnswerIndex; }
+    public void setCategory(String category) { checkNotFrozen(); this.category = category; }
+    public void setPoints(int points) { checkNotFrozen(); this.points = points; }
+    void setPublishedVersion(long publishedVersion) { checkNotFrozen(); this.publishedVersion = publishedVersion; }
+
+    /**
+     * Add or replace a translation of the question text and options
+     * @param localeTag Language tag, e.g. "fr" or "pt-BR"
+     * @param options Translated options in the same order as the originals
+     * @throws IllegalArgumentException if the text is blank or the option count differs
+     */
+    public void addTranslation(String localeTag, String questionText, List<String> options) {
+        checkNotFrozen();
+        translations = translations.with(this, QuizLocale.of(localeTag), questionText, options);
+    }
 
     /**
-     * Check if the given answer is correct
+     * Remove a translation
+     * @return true if the question had a translation for this locale
+     */
+    public boolean removeTranslation(String localeTag) {
+        checkNotFrozen();
+        QuestionTranslations remaining = translations.without(QuizLocale.of(localeTag));
+        boolean removed = remaining != translations;
+        translations = remaining;
+        return removed;
+    }
+
+    /**
+     * Question text in a locale, falling back to less specific locales and then the original
+     */
+    public String getQuestionText(QuizLocale locale) {
+        String text = translations.getText(translations.resolve(locale));
+        return text != null ? text : questionText;
+    }
+
+    /**
+     * Make this question read-only. Questions published in the bank are frozen
+     * so a quiz in progress always grades against the version it was served;
+     * to change one, edit a copy and pass it to QuizManager.updateQuestion.
+     * @return This question
+     */
+    public Question freeze() {
+        this.frozen = true;
+        return this;
+    }
+
+    protected void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("Question " + id + " is frozen; edit a copy and use QuizManager.updateQuestion");
+        }
+    }
+
+    /**
+     * Check if choosing a single option is the correct answer
+     * Other types override this for their own meaning of one option; to check
+     * an answer in any type's encoding, use isCorrectAnswer.
      * @param answerIndex The index of the selected answer (0-based)
      * @return true if correct, false otherwise
      */
@@ -49,27 +153,132 @@ public class Question {
         return answerIndex == correctAnswerIndex;
     }
 
+    /**
+     * Check an encoded answer (see parseAnswer); for this type it is the option index
+     */
+    public boolean isCorrectAnswer(long answer) {
+        return answer == correctAnswerIndex;
+    }
+
+    /**
+     * Get the correct answer in the same encoding as parseAnswer
+     */
+    public long getCorrectAnswer() {
+        return correctAnswerIndex;
+    }
+
+    /**
+     * Set the correct answer in the same encoding as parseAnswer; for this type it
+     * is the option index
+     * @throws IllegalArgumentException if the answer is not a valid encoding for the type
+     */
+    public void setCorrectAnswer(long answer) {
+        if (answer != (int) answer) {
+            throw new IllegalArgumentException("Not an option index: " + answer);
+        }
+        setCorrectAnswerIndex((int) answer);
+    }
+
+    /**
+     * Points an encoded answer earns under a scoring engine
+     */
+    public int score(ScoringEngine scoring, long answer, long answerMillis) {
+        return scoring.score(points, isCorrectAnswer(answer), answerMillis);
+    }
+
+    /**
+     * Turn what the player typed into an encoded answer
+     * @param input A single option letter, e.g. "B"
+     * @throws IllegalArgumentException if the input is not a valid answer
+     */
+    public long parseAnswer(String input) {
+        String answer = input.trim().toUpperCase();
+        if (answer.length() == 1) {
+            int index = answer.charAt(0) - 'A';
+            if (index >= 0 && index < options.size()) {
+                return index;
+            }
+        }
+        throw new IllegalArgumentException("Please enter a letter between A and " + (char) ('A' + options.size() - 1) + "!");
+    }
+
+    /**
+     * Prompt shown when asking for an answer
+     */
+    public String getAnswerPrompt() {
+        return "Your answer (A-" + (char) ('A' + options.size() - 1) + "): ";
+    }
+
+    /**
+     * Describe an encoded answer for feedback and reports
+     */
+    public String formatAnswer(long answer) {
+        return formatAnswer(answer, null);
+    }
+
+    /**
+     * Describe an encoded answer in a locale
+     */
+    public String formatAnswer(long answer, QuizLocale locale) {
+        return answer >= 0 && answer < options.size() ? getOptionText((int) answer, locale) : "";
+    }
+
     /**
      * Get the correct answer text
      * @return The text of the correct answer
      */
     public String getCorrectAnswerText() {
+        return getCorrectAnswerText(null);
+    }
+
+    /**
+     * Get the correct answer text in a locale
+     */
+    public String getCorrectAnswerText(QuizLocale locale) {
         if (correctAnswerIndex >= 0 && correctAnswerIndex < options.size()) {
-            return options.get(correctAnswerIndex);
+            return getOptionText(correctAnswerIndex, locale);
         }
         return "Invalid answer index";
     }
 
+    /**
+     * Get the text of one option without copying the option list
+     * @return The option text, or an empty string if the index is out of range
+     */
+    public String getOptionText(int index) {
+        return index >= 0 && index < options.size() ? options.get(index) : "";
+    }
+
+    /**
+     * Get the text of one option in a locale
+     * @return The option text, or an empty string if the index is out of range
+     */
+    public String getOptionText(int index, QuizLocale locale) {
+        String text = translations.getOption(translations.resolve(locale), index);
+        return text != null ? text : getOptionText(index);
+    }
+
     /**
      * Display the question with options
      * @return Formatted question string
      */
     public String displayQuestion() {
+        return displayQuestion(null);
+    }
+
+    /**
+     * Display the question with options in a locale
+     * The locale is resolved once for the text and all options.
+     */
+    public String displayQuestion(QuizLocale locale) {
+        int offset = translations.resolve(locale);
+        String text = translations.getText(offset);
         StringBuilder sb = new StringBuilder();
-        sb.append(questionText).append("\n");
+        sb.append(text != null ? text : questionText).append("\n");
         
         for (int i = 0; i < options.size(); i++) {
-            sb.append((char)('A' + i)).append(") ").append(options.get(i)).append("\n");
+            String option = translations.getOption(offset, i);
+            sb.append((char)('A' + i)).append(") ").append(option != null ? option : options.get(i)).append("\n");
         }
         
         return sb.toString();
@@ -80,9 +289,16 @@ public class Question {
      * @return true if question is valid, false otherwise
      */
     public boolean isValid() {
-        return questionText != null && !questionText.trim().isEmpty() &&
+        return hasValidBasics() &&
                options != null && options.size() >= 2 &&
-               correctAnswerIndex >= 0 && correctAnswerIndex < options.size() &&
+               correctAnswerIndex >= 0 && correctAnswerIndex < options.size();
+    }
+
+    /**
+     * Validate the parts every question type shares: text, category and points
+     */
+    protected boolean hasValidBasics() {
+        return questionText != null && !questionText.trim().isEmpty() &&
                category != null && !category.trim().isEmpty() &&
                points > 0;
     }
@@ -99,15 +315,16 @@ public class Question {
         if (obj == null || getClass() != obj.getClass()) return false;
         
         Question question = (Question) obj;
-        return correctAnswerIndex == question.correctAnswerIndex &&
+        return getCorrectAnswerIndex() == question.getCorrectAnswerIndex() &&
                points == question.points &&
                questionText.equals(question.questionText) &&
                options.equals(question.options) &&
+               translations.equals(question.translations) &&
                category.equals(question.category);
     }
 
     @Override
     public int hashCode() {
-        return questionText.hashCode() + correctAnswerIndex + points;
+        return questionText.hashCode() + getCorrectAnswerIndex() + points;
     }
 }
@@ -0,0 +1,352 @@
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * QuestionBankSnapshot class - an immutable, versioned view of the question bank
+ * QuizManager publishes a new snapshot for every change and readers simply use
+ * whichever snapshot they picked up, so no locks are needed to read. Questions
+ * inside a snapshot are frozen, which keeps grading stable for a quiz session
+ * even while the bank is being edited. A snapshot is garbage collected once no
+ * session holds it any more. Derived views (category summaries, statistics
+ * text) are built on first use and cached for the life of the snapshot, so
+ * they are only recomputed after the bank changes.
+ */
+public final class QuestionBankSnapshot {
+    // Rough per-question cost beyond its strings: objects, list slots and search postings
+    private static final long QUESTION_OVERHEAD_BYTES = 160;
+    private static final long STRING_OVERHEAD_BYTES = 40;
+
+    private final long version;
+    private final long estimatedBytes;
+    private final QuestionList questions;
+    private final Map<String, QuestionList> questionsByCategory;
+    private final Map<String, QuestionList> questionsByDifficulty;
+    // Built on first use; racing builders produce equal values
+    private volatile List<CategorySummary> categorySummaries;
+    private volatile String statisticsText;
+    private volatile List<QuizLocale> translatedLocales;
+
+    private QuestionBankSnapshot(long version, long estimatedBytes, QuestionList questions,
+                                 Map<String, QuestionList> questionsByCategory,
+                                 Map<String, QuestionList> questionsByDifficulty) {
+        this.version = version;
+        this.estimatedBytes = estimatedBytes;
+        this.questions = questions;
+        this.questionsByCategory = Collections.unmodifiableMap(questionsByCategory);
+        this.questionsByDifficulty = Collections.unmodifiableMap(questionsByDifficulty);
+    }
+
+    /**
+     * Create the empty first snapshot
+     */
+    public static QuestionBankSnapshot empty() {
+        return new QuestionBankSnapshot(0, 0, QuestionList.EMPTY, new HashMap<>(), new HashMap<>());
+    }
+
+    // Inner class with the precomputed figures for one category
+    public static final class CategorySummary {
+        private final String category;
+        private final int questionCount;
+        private final int totalPoints;
+        private final int easyCount;
+        private final int mediumCount;
+        private final int hardCount;
+
+        CategorySummary(String category, List<Question> questions) {
+            int points = 0, easy = 0, medium = 0, hard = 0;
+            for (Question question : questions) {
+                points += question.getPoints();
+                String difficulty = QuizManager.getDifficulty(question.getPoints());
+                if ("easy".equals(difficulty)) easy++;
+                else if ("medium".equals(difficulty)) medium++;
+                else if ("hard".equals(difficulty)) hard++;
+            }
+            this.category = category;
+            this.questionCount = questions.size();
+            this.totalPoints = points;
+            this.easyCount = easy;
+            this.mediumCount = medium;
+            this.hardCount = hard;
+        }
+
+        // Getters
+        public String getCategory() { return category; }
+        public int getQuestionCount() { return questionCount; }
+        public int getTotalPoints() { return totalPoints; }
+        public int getEasyCount() { return easyCount; }
+        public int getMediumCount() { return mediumCount; }
+        public int getHardCount() { return hardCount; }
+    }
+
+    /**
+     * Read-only list over a prefix of a backing array. Appends write past the
+     * prefix and hand out a longer list over the same array, so existing lists
+     * never see the change. Only the newest snapshot is ever appended to.
+     */
+    private static final class QuestionList extends AbstractList<Question> implements RandomAccess {
+        static final QuestionList EMPTY = new QuestionList(new Question[0], 0);
+
+        private final Question[] items;
+        private final int size;
+
+        QuestionList(Question[] items, int size) {
+            this.items = items;
+            this.size = size;
+        }
+
+        @Override
+        public Question get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return items[index];
+        }
+
+        @Override
+        public int size() { return size; }
+
+        QuestionList append(Question question) {
+            Question[] target = items;
+            if (size == items.length) {
+                target = Arrays.copyOf(items, Math.max(8, size * 2));
+            }
+            target[size] = question;
+            return new QuestionList(target, size + 1);
+        }
+    }
+
+    /**
+     * Publish a new question; its ID must equal the current size
+     */
+    QuestionBankSnapshot withAdded(Question question) {
+        return withAddedAll(Collections.singletonList(question));
+    }
+
+    /**
+     * Publish several new questions at once, copying the index maps only once
+     * Their IDs must continue from the current size, in order.
+     */
+    QuestionBankSnapshot withAddedAll(List<Question> added) {
+        Map<String, QuestionList> byCategory = new HashMap<>(questionsByCategory);
+        Map<String, QuestionList> byDifficulty = new HashMap<>(questionsByDifficulty);
+        QuestionList all = questions;
+        long bytes = estimatedBytes;
+        for (Question question : added) {
+            if (question.getId() != all.size()) {
+                throw new IllegalArgumentException("Question ID must be " + all.size());
+            }
+            all = all.append(question);
+            bytes += estimateFootprint(question);
+            byCategory.put(question.getCategory(),
+                    byCategory.getOrDefault(question.getCategory(), QuestionList.EMPTY).append(question));
+            String difficulty = QuizManager.getDifficulty(question.getPoints());
+            if (difficulty != null) {
+                byDifficulty.put(difficulty, byDifficulty.getOrDefault(difficulty, QuestionList.EMPTY).append(question));
+            }
+        }
+        return new QuestionBankSnapshot(version + 1, bytes, all, byCategory, byDifficulty);
+    }
+
+    /**
+     * Rough heap cost of a question in the bank, including its share of the search index
+     */
+    public static long estimateFootprint(Question question) {
+        long chars = question.getQuestionText().length() + question.getCategory().length();
+        int optionCount = question.getOptionCount();
+        for (int i = 0; i < optionCount; i++) {
+            chars += question.getOptionText(i).length();
+        }
+        // Translations add only their own strings plus a reference slot per text
+        QuestionTranslations translations = question.getTranslations();
+        long translationBytes = translations.isEmpty() ? 0 :
+                16 + translations.getLocaleCount() * (optionCount + 1) * 4L +
+                translations.getStoredStringCount() * STRING_OVERHEAD_BYTES;
+        chars += translations.getCharCount();
+        // Strings take about a byte per char; the index about as much again
+        return QUESTION_OVERHEAD_BYTES + (optionCount + 2) * STRING_OVERHEAD_BYTES + translationBytes + chars * 2;
+    }
+
+    /**
+     * Publish an edited question in place of the one with the same ID
+     * Copies the affected lists, so edits cost O(bank size)
+     */
+    QuestionBankSnapshot withReplaced(Question replacement) {
+        return withReplacedAll(Collections.singletonList(replacement));
+    }
+
+    /**
+     * Publish several edited questions at once, copying each affected list only once
+     * @throws IllegalArgumentException if an ID is unknown or appears twice
+     */
+    QuestionBankSnapshot withReplacedAll(List<Question> replacements) {
+        Question[] all = Arrays.copyOf(questions.items, questions.size());
+        List<Question> olds = new ArrayList<>(replacements.size());
+        long bytes = estimatedBytes;
+        for (Question replacement : replacements) {
+            Question old = getQuestion(replacement.getId());
+            if (old == null || all[old.getId()] != old) {
+                throw new IllegalArgumentException("Unknown or repeated question ID: " + replacement.getId());
+            }
+            olds.add(old);
+            all[old.getId()] = replacement;
+            bytes += estimateFootprint(replacement) - estimateFootprint(old);
+        }
+        return new QuestionBankSnapshot(version + 1, bytes, new QuestionList(all, all.length),
+                regroup(questionsByCategory, all, olds, Question::getCategory),
+                regroup(questionsByDifficulty, all, olds, question -> QuizManager.getDifficulty(question.getPoints())));
+    }
+
+    // Rebuild only the lists replaced questions leave or join; a question that moves goes to the end.
+    // A listed question was replaced if the new array holds something else at its ID.
+    private static Map<String, QuestionList> regroup(Map<String, QuestionList> lists, Question[] all,
+                                                     List<Question> olds, Function<Question, String> keyOf) {
+        Set<String> touched = new HashSet<>();
+        Map<String, List<Question>> movedIn = new HashMap<>();
+        for (Question old : olds) {
+            Question replacement = all[old.getId()];
+            String oldKey = keyOf.apply(old);
+            String newKey = keyOf.apply(replacement);
+            if (oldKey != null) {
+                touched.add(oldKey);
+            }
+            if (newKey != null) {
+                touched.add(newKey);
+                if (!newKey.equals(oldKey)) {
+                    movedIn.computeIfAbsent(newKey, key -> new ArrayList<>()).add(replacement);
+                }
+            }
+        }
+        Map<String, QuestionList> result = new HashMap<>(lists);
+        for (String key : touched) {
+            QuestionList list = lists.getOrDefault(key, QuestionList.EMPTY);
+            List<Question> joining = movedIn.getOrDefault(key, Collections.emptyList());
+            Question[] items = new Question[Math.max(8, list.size() + joining.size())];
+            int size = 0;
+            for (int i = 0; i < list.size; i++) {
+                Question question = list.items[i];
+                Question current = all[question.getId()];
+                if (current == question || key.equals(keyOf.apply(current))) {
+                    items[size++] = current;
+                }
+            }
+            for (Question question : joining) {
+                items[size++] = question;
+            }
+            if (size == 0) {
+                result.remove(key);
+            } else {
+                result.put(key, new QuestionList(items, size));
+            }
+        }
+        return result;
+    }
+
+    // Getters
+    public long getVersion() { return version; }
+    public long getEstimatedBytes() { return estimatedBytes; }
+    public int size() { return questions.size(); }
+    public List<Question> getQuestions() { return questions; }
+    public Set<String> getCategories() { return questionsByCategory.keySet(); }
+    public int getCategoryCount() { return questionsByCategory.size(); }
+
+    /**
+     * Get a question by ID
+     * @return The question, or null if no question has that ID
+     */
+    public Question getQuestion(int id) {
+        return id >= 0 && id < questions.size() ? questions.get(id) : null;
+    }
+
+    /**
+     * Get the questions in a category
+     * @return Read-only list, empty if the category is unknown
+     */
+    public List<Question> getQuestionsByCategory(String category) {
+        List<Question> list = questionsByCategory.get(category);
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    /**
+     * Get the questions at a difficulty level ("easy", "medium" or "hard")
+     * @return Read-only list, empty if there are none
+     */
+    public List<Question> getQuestionsByDifficulty(String difficulty) {
+        List<Question> list = questionsByDifficulty.get(difficulty);
+        return list == null ? Collections.emptyList() : list;
+    }
+
+    /**
+     * Get every locale at least one question is translated into, in ID order
+     * @return Read-only list, built once per snapshot
+     */
+    public List<QuizLocale> getTranslatedLocales() {
+        List<QuizLocale> locales = translatedLocales;
+        if (locales == null) {
+            long mask = 0;
+            for (Question question : questions) {
+                mask |= question.getTranslations().getLocaleMask();
+            }
+            List<QuizLocale> built = new ArrayList<>(Long.bitCount(mask));
+            for (long rest = mask; rest != 0; rest &= rest - 1) {
+                built.add(QuizLocale.byId(Long.numberOfTrailingZeros(rest)));
+            }
+            locales = Collections.unmodifiableList(built);
+            translatedLocales = locales;
+        }
+        return locales;
+    }
+
+    /**
+     * Get a summary of every category, in the same order as getCategories
+     * @return Read-only list, built once per snapshot
+     */
+    public List<CategorySummary> getCategorySummaries() {
+        List<CategorySummary> summaries = categorySummaries;
+        if (summaries == null) {
+            List<CategorySummary> built = new ArrayList<>(questionsByCategory.size());
+            for (Map.Entry<String, QuestionList> entry : questionsByCategory.entrySet()) {
+                built.add(new CategorySummary(entry.getKey(), entry.getValue()));
+            }
+            summaries = Collections.unmodifiableList(built);
+            categorySummaries = summaries;
+        }
+        return summaries;
+    }
+
+    /**
+     * Get the statistics text shown by QuizManager.getQuizStatistics
+     * @return The text, built once per snapshot
+     */
+    public String getStatisticsText() {
+        String text = statisticsText;
+        if (text == null) {
+            StringBuilder stats = new StringBuilder();
+            stats.append("=== QUIZ STATISTICS ===\n");
+            stats.append("Total Questions: ").append(size()).append("\n");
+            stats.append("Categories: ").append(getCategoryCount()).append("\n\n");
+
+            stats.append("Questions by Category:\n");
+            for (CategorySummary summary : getCategorySummaries()) {
+                stats.append("- ").append(summary.getCategory()).append(": ").append(summary.getQuestionCount()).append(" questions\n");
+            }
+            text = stats.toString();
+            statisticsText = text;
+        }
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("QuestionBankSnapshot{version=%d, questions=%d, categories=%d}",
+                version, questions.size(), questionsByCategory.size());
+    }
+}
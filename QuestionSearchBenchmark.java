@@ -0,0 +1,133 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * QuestionSearchBenchmark - latency of ranked search over a large synthetic bank
+ * Questions are built from a Zipf-distributed vocabulary around a few very
+ * common words ("what", "is", "the"), which are the worst case for top-k
+ * search because their posting lists cover most of the bank.
+ *
+ * Usage: java QuestionSearchBenchmark [questions=1000000] [queries=200] [limit=20]
+ */
+public class QuestionSearchBenchmark {
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ter", "son", "vel", "dra", "qui", "ne", "tor",
+                                               "pha", "gen", "ul", "ris", "bo", "cha", "lex", "mun", "sai", "dor"};
+    private static final String[] TEMPLATES = {"What is the %s of the %s?", "Which %s is the %s of %s?",
+                                               "Who discovered the %s %s?", "What is %s %s?"};
+
+    public static void main(String[] args) {
+        BenchmarkSupport.Options options = BenchmarkSupport.parseOptions(args, "questions", "queries", "limit");
+        int questionCount = options.getInt("questions", 1_000_000);
+        int queryCount = options.getInt("queries", 200);
+        int limit = options.getInt("limit", 20);
+
+        SplittableRandom random = new SplittableRandom(42);
+        String[] vocabulary = vocabulary(20_000, random);
+        double[] zipf = zipfCumulative(vocabulary.length);
+
+        long start = System.nanoTime();
+        QuestionSearchIndex index = new QuestionSearchIndex();
+        for (int i = 0; i < questionCount; i++) {
+            index.addQuestion(question(i, vocabulary, zipf, random));
+        }
+        System.out.println(String.format("Indexed %d questions (%d terms) in %.1fs", questionCount,
+                index.getVocabularySize(), (System.nanoTime() - start) / 1e9));
+
+        String rare = vocabulary[vocabulary.length - 1];
+        String common = vocabulary[0];
+        String[][] workloads = {
+                {"what is"},
+                {"the " + common},
+                {"the " + rare},
+                {"whatt thee"},
+                {"what is the " + common + " of the " + vocabulary[1]},
+        };
+        String[] labels = {"stop words", "the + common", "the + rare", "fuzzy stop words", "long query"};
+
+        System.out.println("Latency per query (limit " + limit + "):");
+        for (int w = 0; w < workloads.length; w++) {
+            measure(index, workloads[w][0], Math.max(10, queryCount / 10), limit);
+            long[] nanos = measure(index, workloads[w][0], queryCount, limit);
+            report(labels[w] + " \"" + workloads[w][0] + "\"", nanos);
+        }
+
+        // Random two-term queries drawn from the same distribution
+        String[] randomQueries = new String[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            randomQueries[i] = word(vocabulary, zipf, random) + " " + word(vocabulary, zipf, random);
+        }
+        long[] nanos = new long[queryCount];
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < queryCount; i++) {
+                long queryStart = System.nanoTime();
+                BenchmarkSupport.consume(index.search(randomQueries[i], limit).size());
+                nanos[i] = System.nanoTime() - queryStart;
+            }
+        }
+        report("random two-term", nanos);
+    }
+
+    private static long[] measure(QuestionSearchIndex index, String query, int count, int limit) {
+        long[] nanos = new long[count];
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            BenchmarkSupport.consume(index.search(query, limit).size());
+            nanos[i] = System.nanoTime() - start;
+        }
+        return nanos;
+    }
+
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(sorted).average().orElse(0);
+        System.out.println(String.format("  %-44s mean %7.3f ms  p50 %7.3f ms  p99 %7.3f ms", label,
+                mean / 1e6, sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6));
+    }
+
+    private static Question question(int i, String[] vocabulary, double[] zipf, SplittableRandom random) {
+        String template = TEMPLATES[random.nextInt(TEMPLATES.length)];
+        String text = String.format(template, word(vocabulary, zipf, random), word(vocabulary, zipf, random),
+                word(vocabulary, zipf, random));
+        List<String> options = new ArrayList<>(4);
+        for (int o = 0; o < 4; o++) {
+            options.add(word(vocabulary, zipf, random));
+        }
+        Question question = new Question(text, options, 0, "Category " + (i % 50), 10);
+        question.setId(i);
+        return question;
+    }
+
+    private static String[] vocabulary(int size, SplittableRandom random) {
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder sb = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = sb.toString();
+        }
+        return words;
+    }
+
+    private static double[] zipfCumulative(int size) {
+        double[] cumulative = new double[size];
+        double total = 0;
+        for (int i = 0; i < size; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    private static String word(String[] vocabulary, double[] zipf, SplittableRandom random) {
+        int at = Arrays.binarySearch(zipf, random.nextDouble());
+        return vocabulary[Math.min(vocabulary.length - 1, at < 0 ? -at - 1 : at)];
+    }
+}
@@ -0,0 +1,928 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * QuestionSearchIndex class for ranked full-text search over questions
+ * Indexes question text, options and category into an inverted index scored
+ * with BM25. Query terms with no exact match are expanded to vocabulary terms
+ * within a small edit distance, found through a trigram index.
+ * Searches walk the posting lists in document order with block-max MaxScore:
+ * terms whose score bound can no longer lift a document into the top k are
+ * only probed for documents the other terms already matched, and whole
+ * blocks of postings are skipped when their stored bounds fall short.
+ * The bounds are kept as term frequencies and document lengths rather than
+ * scores, so they hold whatever the average document length is and adding a
+ * question updates them in constant time. A block's bound pairs each range of
+ * its document lengths with what the other query terms could add at those
+ * lengths, which keeps blocks of common words skippable even when many
+ * documents tie for the best score. In large banks, query terms found in more
+ * than a third of the questions are ignored when the query has rarer terms.
+ * Documents get internal IDs in indexing order. Re-indexing an edited question
+ * tombstones its old document and appends the new one, and the postings are
+ * compacted once a quarter of the documents are tombstones.
+ * Not thread-safe: one thread may add while none search.
+ */
+public class QuestionSearchIndex {
+    // BM25 parameters
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // Field weights applied to term frequencies
+    private static final float TEXT_WEIGHT = 1.0f;
+    private static final float OPTION_WEIGHT = 0.6f;
+    private static final float CATEGORY_WEIGHT = 1.5f;
+
+    // Fuzzy matches score less the further they are from the query term
+    private static final float[] EDIT_PENALTY = {1.0f, 0.6f, 0.35f};
+    private static final int MAX_FUZZY_EXPANSIONS = 16;
+    // Postings per block of score bounds used to skip documents during search
+    private static final int BLOCK_SIZE = 64;
+    // Bound boxes per block of postings, plus a spare slot used while merging
+    private static final int BLOCK_BOXES = 4;
+    private static final int BOX_SLOTS = BLOCK_BOXES + 1;
+    // Bound corners per whole posting list
+    private static final int LIST_CORNERS = 8;
+    // Query terms in more than 1/COMMON_FRACTION of the documents are dropped next to rarer
+    // ones, once they are in enough documents for probing them to cost anything
+    private static final int COMMON_FRACTION = 3;
+    private static final int MIN_COMMON_POSTINGS = 1024;
+    // Relative slack when comparing score bounds with the k-th best score
+    private static final float TIE_TOLERANCE = 1e-6f;
+
+    private Map<String, Integer> termIds;
+    private List<String> terms;
+    private List<Postings> postings;
+    private Map<String, int[]> termsByTrigram;
+    private float[] docLengths;
+    // Question ID of each internal document, or -1 once it has been replaced
+    private int[] docQuestionIds;
+    // Internal document of each question ID plus one, so 0 means not indexed
+    private int[] docsByQuestionId;
+    private int docCount;
+    private int deletedCount;
+    private double totalDocLength;
+
+    // Postings touched by the document being indexed
+    private List<Postings> touchedPostings;
+
+    public QuestionSearchIndex() {
+        this.termIds = new HashMap<>();
+        this.terms = new ArrayList<>();
+        this.postings = new ArrayList<>();
+        this.termsByTrigram = new HashMap<>();
+        this.docLengths = new float[64];
+        this.docQuestionIds = new int[64];
+        this.docsByQuestionId = new int[64];
+        this.docCount = 0;
+        this.deletedCount = 0;
+        this.totalDocLength = 0;
+        this.touchedPostings = new ArrayList<>();
+    }
+
+    // Inner class for one search result
+    public static class Hit {
+        private final int questionId;
+        private final float score;
+
+        public Hit(int questionId, float score) {
+            this.questionId = questionId;
+            this.score = score;
+        }
+
+        // Getters
+        public int getQuestionId() { return questionId; }
+        public float getScore() { return score; }
+
+        @Override
+        public String toString() {
+            return String.format("Hit{id=%d, score=%.3f}", questionId, score);
+        }
+    }
+
+    // Growable posting list for a single term, with per-block score bounds
+    private static class Postings {
+        int[] docs = new int[4];
+        float[] frequencies = new float[4];
+        int size;
+        // Boxes bounding each block of BLOCK_SIZE postings, BOX_SLOTS per block; see addBox
+        float[] boxFrequencies = new float[BOX_SLOTS];
+        float[] boxMinLengths = new float[BOX_SLOTS];
+        float[] boxMaxLengths = new float[BOX_SLOTS];
+        int[] boxCounts = new int[1];
+        // Corners bounding the whole list; see addCorner
+        final float[] cornerFrequencies = new float[LIST_CORNERS];
+        final float[] cornerLengths = new float[LIST_CORNERS];
+        int cornerCount;
+
+        void add(int doc, float frequency) {
+            // Documents are added in increasing ID order, so a repeat can only be the last entry
+            if (size > 0 && docs[size - 1] == doc) {
+                frequencies[size - 1] += frequency;
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            int block = size / BLOCK_SIZE;
+            if (block == boxCounts.length) {
+                boxCounts = Arrays.copyOf(boxCounts, block * 2);
+                boxFrequencies = Arrays.copyOf(boxFrequencies, block * 2 * BOX_SLOTS);
+                boxMinLengths = Arrays.copyOf(boxMinLengths, block * 2 * BOX_SLOTS);
+                boxMaxLengths = Arrays.copyOf(boxMaxLengths, block * 2 * BOX_SLOTS);
+            }
+            if (size % BLOCK_SIZE == 0) {
+                boxCounts[block] = 0;
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        // Called once the last added document is complete and its length known
+        void noteLength(float length) {
+            noteBounds(size - 1, length);
+        }
+
+        private void noteBounds(int index, float length) {
+            int block = index / BLOCK_SIZE;
+            boxCounts[block] = addBox(this, block * BOX_SLOTS, boxCounts[block], frequencies[index], length);
+            cornerCount = addCorner(cornerFrequencies, cornerLengths, cornerCount, frequencies[index], length);
+        }
+
+        // Drop postings of tombstoned documents, renumber the rest and rebuild the bounds
+        void retain(int[] newDocs, float[] docLengths) {
+            int kept = 0;
+            cornerCount = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = newDocs[docs[i]];
+                if (doc >= 0) {
+                    if (kept % BLOCK_SIZE == 0) {
+                        boxCounts[kept / BLOCK_SIZE] = 0;
+                    }
+                    docs[kept] = doc;
+                    frequencies[kept] = frequencies[i];
+                    noteBounds(kept, docLengths[doc]);
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+
+        // Highest impact of any posting in the block
+        float blockMaxImpact(int block, float averageLength) {
+            float best = 0;
+            for (int b = block * BOX_SLOTS; b < block * BOX_SLOTS + boxCounts[block]; b++) {
+                best = Math.max(best, impact(boxFrequencies[b], boxMinLengths[b], averageLength));
+            }
+            return best;
+        }
+
+        // Shortest document in the block
+        float blockMinLength(int block) {
+            return boxMinLengths[block * BOX_SLOTS];
+        }
+
+        // Highest impact of any posting whose document length is within the range
+        float maxImpact(float minLength, float maxLength, float averageLength) {
+            float best = 0;
+            for (int i = 0; i < cornerCount && cornerLengths[i] <= maxLength; i++) {
+                best = Math.max(best, impact(cornerFrequencies[i], Math.max(cornerLengths[i], minLength), averageLength));
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Add a posting to a block's bound boxes, stored from base
+     * Every posting in the block has at most the frequency of some box and a
+     * document length within its range. Boxes are kept sorted by shortest
+     * length; when there are too many, the two neighbours spanning the
+     * narrowest length range merge into one box covering both.
+     * @return The new number of boxes
+     */
+    private static int addBox(Postings p, int base, int count, float frequency, float length) {
+        float[] frequencies = p.boxFrequencies;
+        float[] minLengths = p.boxMinLengths;
+        float[] maxLengths = p.boxMaxLengths;
+        int end = base + count;
+        for (int i = base; i < end; i++) {
+            if (minLengths[i] <= length && maxLengths[i] >= length) {
+                frequencies[i] = Math.max(frequencies[i], frequency);
+                return count;
+            }
+        }
+        // The spare slot past BLOCK_BOXES makes room before merging
+        int at = end;
+        while (at > base && minLengths[at - 1] > length) {
+            frequencies[at] = frequencies[at - 1];
+            minLengths[at] = minLengths[at - 1];
+            maxLengths[at] = maxLengths[at - 1];
+            at--;
+        }
+        frequencies[at] = frequency;
+        minLengths[at] = length;
+        maxLengths[at] = length;
+        if (++count <= BLOCK_BOXES) {
+            return count;
+        }
+        int merge = base;
+        float narrowest = Float.MAX_VALUE;
+        for (int i = base; i < base + count - 1; i++) {
+            float span = Math.max(maxLengths[i], maxLengths[i + 1]) / minLengths[i];
+            if (span < narrowest) {
+                narrowest = span;
+                merge = i;
+            }
+        }
+        frequencies[merge] = Math.max(frequencies[merge], frequencies[merge + 1]);
+        maxLengths[merge] = Math.max(maxLengths[merge], maxLengths[merge + 1]);
+        for (int i = merge + 1; i < base + count - 1; i++) {
+            frequencies[i] = frequencies[i + 1];
+            minLengths[i] = minLengths[i + 1];
+            maxLengths[i] = maxLengths[i + 1];
+        }
+        return count - 1;
+    }
+
+    /**
+     * Add a posting to a posting list's bound corners
+     * Every posting has at most the frequency and at least the document length
+     * of some corner. BM25 impact rises with frequency and falls with length for
+     * any average length, so the corners bound the postings' impacts without
+     * storing scores. Corners are kept sorted by length, which makes their
+     * frequencies rise too; when there are too many, the two neighbours closest
+     * in length merge into one corner with the higher frequency and shorter length.
+     * @return The new number of corners
+     */
+    private static int addCorner(float[] frequencies, float[] lengths, int count, float frequency, float length) {
+        for (int i = 0; i < count; i++) {
+            if (frequencies[i] >= frequency && lengths[i] <= length) {
+                return count;
+            }
+        }
+        // Drop corners the new one covers
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (frequencies[i] > frequency || lengths[i] < length) {
+                frequencies[kept] = frequencies[i];
+                lengths[kept] = lengths[i];
+                kept++;
+            }
+        }
+        if (kept == LIST_CORNERS) {
+            int merge = 0;
+            for (int i = 1; i < kept - 1; i++) {
+                if (lengths[i + 1] / lengths[i] < lengths[merge + 1] / lengths[merge]) {
+                    merge = i;
+                }
+            }
+            frequencies[merge] = frequencies[merge + 1];
+            for (int i = merge + 1; i < kept - 1; i++) {
+                frequencies[i] = frequencies[i + 1];
+                lengths[i] = lengths[i + 1];
+            }
+            kept--;
+            if (frequencies[merge] >= frequency && lengths[merge] <= length) {
+                return kept;
+            }
+        }
+        int at = kept;
+        while (at > 0 && lengths[at - 1] > length) {
+            frequencies[at] = frequencies[at - 1];
+            lengths[at] = lengths[at - 1];
+            at--;
+        }
+        frequencies[at] = frequency;
+        lengths[at] = length;
+        return kept + 1;
+    }
+
+    // BM25 term weight before idf
+    private static float impact(float tf, float length, float averageLength) {
+        return tf * (K1 + 1) / (tf + K1 * (1 - B + B * length / averageLength));
+    }
+
+    // A term to score with its fuzzy-match penalty, and its position in the postings during a search
+    private static class Clause {
+        final Postings postings;
+        final float weightedIdf;
+        float upperBound;
+        int cursor;
+
+        Clause(Postings postings, float weightedIdf) {
+            this.postings = postings;
+            this.weightedIdf = weightedIdf;
+        }
+
+        // Score of the document at the cursor
+        float score(float[] docLengths, float averageLength) {
+            return weightedIdf * impact(postings.frequencies[cursor], docLengths[postings.docs[cursor]], averageLength);
+        }
+
+        // Most the clause could add to a document of this length
+        float lengthBound(float length, float averageLength) {
+            return weightedIdf * postings.maxImpact(length, length, averageLength);
+        }
+
+        // Most the clause could add to a document whose length is within the range
+        float rangeBound(float minLength, float maxLength, float averageLength) {
+            return weightedIdf * postings.maxImpact(minLength, maxLength, averageLength);
+        }
+
+        // No document in the block scores more
+        float blockBound(int block, float averageLength) {
+            return weightedIdf * postings.blockMaxImpact(block, averageLength);
+        }
+
+        int doc() {
+            return cursor < postings.size ? postings.docs[cursor] : Integer.MAX_VALUE;
+        }
+
+        // Move to the first posting at or after the document, galloping then bisecting
+        void seek(int target) {
+            int[] docs = postings.docs;
+            int size = postings.size;
+            if (cursor >= size || docs[cursor] >= target) {
+                return;
+            }
+            int low = cursor;
+            int step = 1;
+            while (low + step < size && docs[low + step] < target) {
+                low += step;
+                step <<= 1;
+            }
+            int high = Math.min(low + step, size);
+            // docs[low] < target, and docs[high] >= target or high == size
+            while (high - low > 1) {
+                int mid = (low + high) >>> 1;
+                if (docs[mid] < target) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            cursor = high;
+        }
+    }
+
+    // What the non-essential clauses could add at a document length, remembered per search;
+    // documents built from the same fields share lengths, so most candidates hit the memo
+    private static class NonEssentialBounds {
+        private static final int SLOTS = 256;
+
+        private final Clause[] ordered;
+        private final float averageLength;
+        private final float[] lengths = new float[SLOTS];
+        private final float[] bounds = new float[SLOTS];
+        private int firstEssential = -1;
+
+        NonEssentialBounds(Clause[] ordered, float averageLength) {
+            this.ordered = ordered;
+            this.averageLength = averageLength;
+        }
+
+        float at(int firstEssential, float length) {
+            if (firstEssential != this.firstEssential) {
+                // NaN matches no length
+                Arrays.fill(lengths, Float.NaN);
+                this.firstEssential = firstEssential;
+            }
+            int slot = (Float.floatToRawIntBits(length) * 0x9E3779B9) >>> 24;
+            if (lengths[slot] != length) {
+                float bound = 0;
+                for (int i = 0; i < firstEssential; i++) {
+                    bound += ordered[i].lengthBound(length, averageLength);
+                }
+                lengths[slot] = length;
+                bounds[slot] = bound;
+            }
+            return bounds[slot];
+        }
+    }
+
+    // Best k documents so far in a primitive min-heap; the root is the k-th best
+    private static class TopHits {
+        final int[] docs;
+        final float[] scores;
+        int size;
+
+        TopHits(int capacity) {
+            this.docs = new int[capacity];
+            this.scores = new float[capacity];
+        }
+
+        boolean isFull() {
+            return size == docs.length;
+        }
+
+        // A document must score strictly more than this to get in once the heap is full
+        float threshold() {
+            return scores[0];
+        }
+
+        // Bounds at or below this can't beat the k-th best; the slack absorbs rounding
+        // from adding the same scores in another order, so exact ties are skipped too
+        float skipLimit() {
+            return scores[0] * (1 + TIE_TOLERANCE);
+        }
+
+        void offer(int doc, float score) {
+            if (size < docs.length) {
+                docs[size] = doc;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (score > scores[0]) {
+                docs[0] = doc;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        // Equal scores rank the earlier-indexed document higher, so the later one is "worse"
+        private boolean worse(int a, int b) {
+            return scores[a] < scores[b] || (scores[a] == scores[b] && docs[a] > docs[b]);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!worse(index, parent)) break;
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= size) break;
+                if (child + 1 < size && worse(child + 1, child)) {
+                    child++;
+                }
+                if (!worse(child, index)) break;
+                swap(index, child);
+                index = child;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int doc = docs[a];
+            docs[a] = docs[b];
+            docs[b] = doc;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+
+        // Drains the heap, best first
+        List<Hit> toHits(int[] docQuestionIds) {
+            Hit[] hits = new Hit[size];
+            for (int i = size - 1; i >= 0; i--) {
+                hits[i] = new Hit(docQuestionIds[docs[0]], scores[0]);
+                size--;
+                docs[0] = docs[size];
+                scores[0] = scores[size];
+                siftDown(0);
+            }
+            return new ArrayList<>(Arrays.asList(hits));
+        }
+    }
+
+    /**
+     * Index a question under its ID
+     * @throws IllegalArgumentException if the question is already indexed
+     */
+    public void addQuestion(Question question) {
+        addQuestion(question, null);
+    }
+
+    /**
+     * Index a question's text as shown in a locale
+     * Untranslated text falls back as it does on screen, so every question
+     * stays findable in every locale.
+     */
+    public void addQuestion(Question question, QuizLocale locale) {
+        if (contains(question.getId())) {
+            throw new IllegalArgumentException("Question " + question.getId() + " is already indexed");
+        }
+        int doc = docCount;
+        ensureDocCapacity(doc + 1, question.getId() + 1);
+        docQuestionIds[doc] = question.getId();
+        docsByQuestionId[question.getId()] = doc + 1;
+
+        float length = 0;
+        length += indexField(doc, question.getQuestionText(locale), TEXT_WEIGHT);
+        for (int i = 0; i < question.getOptionCount(); i++) {
+            length += indexField(doc, question.getOptionText(i, locale), OPTION_WEIGHT);
+        }
+        length += indexField(doc, question.getCategory(), CATEGORY_WEIGHT);
+        docLengths[doc] = length;
+        totalDocLength += length;
+        docCount = doc + 1;
+        for (Postings p : touchedPostings) {
+            p.noteLength(length);
+        }
+        touchedPostings.clear();
+    }
+
+    /**
+     * Re-index an edited question in place of its previous version
+     * Costs about as much as indexing one question; no other document is touched
+     * until enough replacements accumulate to compact the postings.
+     */
+    public void updateQuestion(Question question) {
+        updateQuestion(question, null);
+    }
+
+    /**
+     * Re-index an edited question's text as shown in a locale
+     */
+    public void updateQuestion(Question question, QuizLocale locale) {
+        if (contains(question.getId())) {
+            // Tombstone the old version; its postings stay until the next compaction
+            docQuestionIds[docsByQuestionId[question.getId()] - 1] = -1;
+            docsByQuestionId[question.getId()] = 0;
+            deletedCount++;
+        }
+        addQuestion(question, locale);
+        if (deletedCount * 4 > docCount) {
+            compact();
+        }
+    }
+
+    /**
+     * Check whether a question is indexed
+     */
+    public boolean contains(int questionId) {
+        return questionId >= 0 && questionId < docsByQuestionId.length && docsByQuestionId[questionId] != 0;
+    }
+
+    // Renumber live documents densely and drop tombstoned postings
+    private void compact() {
+        int[] newDocs = new int[docCount];
+        int live = 0;
+        totalDocLength = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            int questionId = docQuestionIds[doc];
+            if (questionId < 0) {
+                newDocs[doc] = -1;
+                continue;
+            }
+            newDocs[doc] = live;
+            docQuestionIds[live] = questionId;
+            docLengths[live] = docLengths[doc];
+            docsByQuestionId[questionId] = live + 1;
+            totalDocLength += docLengths[live];
+            live++;
+        }
+        docCount = live;
+        deletedCount = 0;
+        for (Postings p : postings) {
+            p.retain(newDocs, docLengths);
+        }
+    }
+
+    /**
+     * Search for the best matching questions
+     * @param query Free text; terms are OR-ed together, and a repeated term counts more
+     * @param limit Maximum number of hits to return
+     * @return Hits ordered by descending score
+     */
+    public List<Hit> search(String query, int limit) {
+        List<Hit> hits = new ArrayList<>();
+        if (query == null || limit <= 0 || docCount == deletedCount) {
+            return hits;
+        }
+
+        List<Clause> clauses = buildClauses(query);
+        if (clauses.isEmpty()) {
+            return hits;
+        }
+        float averageLength = (float) (totalDocLength / docCount);
+        for (Clause clause : clauses) {
+            clause.upperBound = clause.rangeBound(0, Float.MAX_VALUE, averageLength);
+        }
+        // Lowest bounds first; prefixBounds[i] bounds what clauses 0..i can add together
+        clauses.sort((a, b) -> Float.compare(a.upperBound, b.upperBound));
+        int clauseCount = clauses.size();
+        Clause[] ordered = clauses.toArray(new Clause[0]);
+        float[] prefixBounds = new float[clauseCount];
+        float runningBound = 0;
+        for (int i = 0; i < clauseCount; i++) {
+            runningBound += ordered[i].upperBound;
+            prefixBounds[i] = runningBound;
+        }
+
+        TopHits top = new TopHits(limit);
+        NonEssentialBounds nonEssentialBounds = new NonEssentialBounds(ordered, averageLength);
+        // Clauses below firstEssential are non-essential: together they can't lift a
+        // document into the top k, so they are only probed for candidates
+        int firstEssential = 0;
+        while (true) {
+            if (top.isFull()) {
+                while (firstEssential < clauseCount && prefixBounds[firstEssential] <= top.skipLimit()) {
+                    firstEssential++;
+                }
+            }
+            if (firstEssential == clauseCount) {
+                break;
+            }
+            if (firstEssential == clauseCount - 1) {
+                scoreSingleEssential(ordered, prefixBounds, top, nonEssentialBounds, averageLength);
+                break;
+            }
+
+            // Next candidate, and the range up to which every essential clause stays in its current block
+            int doc = Integer.MAX_VALUE;
+            int blockEnd = Integer.MAX_VALUE;
+            float blockBound = 0;
+            float minLength = Float.MAX_VALUE;
+            for (int i = firstEssential; i < clauseCount; i++) {
+                Clause clause = ordered[i];
+                if (clause.cursor >= clause.postings.size) continue;
+                doc = Math.min(doc, clause.doc());
+                int block = clause.cursor / BLOCK_SIZE;
+                blockBound += clause.blockBound(block, averageLength);
+                minLength = Math.min(minLength, clause.postings.blockMinLength(block));
+                int lastInBlock = Math.min((block + 1) * BLOCK_SIZE, clause.postings.size) - 1;
+                blockEnd = Math.min(blockEnd, clause.postings.docs[lastInBlock]);
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+            // Every candidate in range is at least minLength long
+            for (int i = 0; i < firstEssential; i++) {
+                blockBound += ordered[i].rangeBound(minLength, Float.MAX_VALUE, averageLength);
+            }
+            if (top.isFull() && blockBound <= top.skipLimit()) {
+                // Nothing up to blockEnd can make the top k
+                for (int i = firstEssential; i < clauseCount; i++) {
+                    ordered[i].seek(blockEnd + 1);
+                }
+                continue;
+            }
+
+            float score = 0;
+            for (int i = firstEssential; i < clauseCount; i++) {
+                Clause clause = ordered[i];
+                if (clause.doc() == doc) {
+                    score += clause.score(docLengths, averageLength);
+                    clause.cursor++;
+                }
+            }
+            completeAndOffer(ordered, firstEssential, doc, score, top, nonEssentialBounds, averageLength);
+        }
+
+        return top.toHits(docQuestionIds);
+    }
+
+    // Only the highest-bound clause is essential, the usual case once the top k fill
+    // up: walk its postings block by block in a tight loop
+    private void scoreSingleEssential(Clause[] ordered, float[] prefixBounds, TopHits top,
+                                      NonEssentialBounds nonEssentialBounds, float averageLength) {
+        int last = ordered.length - 1;
+        Clause clause = ordered[last];
+        Postings p = clause.postings;
+        while (clause.cursor < p.size) {
+            if (top.isFull() && prefixBounds[last] <= top.skipLimit()) {
+                return;
+            }
+            int block = clause.cursor / BLOCK_SIZE;
+            int end = Math.min(p.size, (block + 1) * BLOCK_SIZE);
+            if (top.isFull() && singleEssentialBlockBound(ordered, block, averageLength) <= top.skipLimit()) {
+                clause.cursor = end;
+                continue;
+            }
+            for (; clause.cursor < end; clause.cursor++) {
+                int doc = p.docs[clause.cursor];
+                completeAndOffer(ordered, last, doc, clause.score(docLengths, averageLength), top,
+                        nonEssentialBounds, averageLength);
+            }
+        }
+    }
+
+    // Most a document in the essential clause's block can score: for each of the block's
+    // boxes, the essential impact plus what the other clauses could add at those lengths
+    private static float singleEssentialBlockBound(Clause[] ordered, int block, float averageLength) {
+        int last = ordered.length - 1;
+        Clause clause = ordered[last];
+        Postings p = clause.postings;
+        float best = 0;
+        for (int b = block * BOX_SLOTS; b < block * BOX_SLOTS + p.boxCounts[block]; b++) {
+            float minLength = p.boxMinLengths[b];
+            float maxLength = p.boxMaxLengths[b];
+            float bound = clause.weightedIdf * impact(p.boxFrequencies[b], minLength, averageLength);
+            for (int i = 0; i < last; i++) {
+                bound += ordered[i].rangeBound(minLength, maxLength, averageLength);
+            }
+            best = Math.max(best, bound);
+        }
+        return best;
+    }
+
+    // Add the non-essential clauses' scores to a candidate, stopping once it can't make the top k
+    private void completeAndOffer(Clause[] ordered, int firstEssential, int doc, float score, TopHits top,
+                                  NonEssentialBounds nonEssentialBounds, float averageLength) {
+        if (docQuestionIds[doc] < 0) {
+            return;
+        }
+        // Non-essential clauses are bounded by what they could add at this document's length
+        float length = docLengths[doc];
+        float remaining = top.isFull() ? nonEssentialBounds.at(firstEssential, length) : 0;
+        for (int i = firstEssential - 1; i >= 0; i--) {
+            Clause clause = ordered[i];
+            if (top.isFull()) {
+                if (score + remaining <= top.skipLimit()) {
+                    return;
+                }
+                remaining -= clause.lengthBound(length, averageLength);
+            }
+            clause.seek(doc);
+            if (clause.doc() == doc) {
+                score += clause.score(docLengths, averageLength);
+            }
+        }
+        top.offer(doc, score);
+    }
+
+    public int getDocumentCount() { return docCount - deletedCount; }
+    public int getVocabularySize() { return terms.size(); }
+
+    private float indexField(int doc, String text, float weight) {
+        if (text == null) return 0;
+        float length = 0;
+        for (String token : tokenize(text)) {
+            Postings p = termPostings(token);
+            if (p.size == 0 || p.docs[p.size - 1] != doc) {
+                touchedPostings.add(p);
+            }
+            p.add(doc, weight);
+            length += weight;
+        }
+        return length;
+    }
+
+    private Postings termPostings(String term) {
+        Integer id = termIds.get(term);
+        if (id != null) {
+            return postings.get(id);
+        }
+        int newId = terms.size();
+        termIds.put(term, newId);
+        terms.add(term);
+        Postings p = new Postings();
+        postings.add(p);
+        for (String trigram : trigrams(term)) {
+            int[] ids = termsByTrigram.get(trigram);
+            if (ids == null) {
+                ids = new int[]{0, 0, 0, 0};
+            } else if (ids[0] + 1 == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            // Slot 0 holds the count
+            ids[++ids[0]] = newId;
+            termsByTrigram.put(trigram, ids);
+        }
+        return p;
+    }
+
+    // A term matched more than once, exactly or fuzzily, gets one clause with the weights summed.
+    // Terms so common they barely separate documents ("what", "the") are dropped when the query
+    // has rarer terms: they would add to nearly every candidate's score while costing a probe
+    // of a posting list that covers much of the bank
+    private List<Clause> buildClauses(String query) {
+        Map<Postings, Float> weights = new LinkedHashMap<>();
+        for (String token : tokenize(query)) {
+            Integer id = termIds.get(token);
+            // Terms left with no postings after a compaction fall through to fuzzy matching
+            if (id != null && postings.get(id).size > 0) {
+                weights.merge(postings.get(id), EDIT_PENALTY[0], Float::sum);
+                continue;
+            }
+            int maxEdits = token.length() >= 8 ? 2 : token.length() >= 4 ? 1 : 0;
+            if (maxEdits > 0) {
+                addFuzzyMatches(token, maxEdits, weights);
+            }
+        }
+        boolean hasRareTerm = false;
+        for (Postings p : weights.keySet()) {
+            hasRareTerm |= !isCommon(p);
+        }
+        List<Clause> clauses = new ArrayList<>(weights.size());
+        for (Map.Entry<Postings, Float> entry : weights.entrySet()) {
+            if (!hasRareTerm || !isCommon(entry.getKey())) {
+                clauses.add(new Clause(entry.getKey(), entry.getValue() * idf(entry.getKey())));
+            }
+        }
+        return clauses;
+    }
+
+    // Candidate terms share at least one trigram with the query term
+    private void addFuzzyMatches(String token, int maxEdits, Map<Postings, Float> weights) {
+        Map<Integer, Integer> seen = new HashMap<>();
+        int expansions = 0;
+        for (String trigram : trigrams(token)) {
+            int[] ids = termsByTrigram.get(trigram);
+            if (ids == null) continue;
+            for (int i = 1; i <= ids[0] && expansions < MAX_FUZZY_EXPANSIONS; i++) {
+                int termId = ids[i];
+                if (seen.putIfAbsent(termId, termId) != null) continue;
+                String candidate = terms.get(termId);
+                if (Math.abs(candidate.length() - token.length()) > maxEdits) continue;
+                int distance = boundedEditDistance(token, candidate, maxEdits);
+                if (distance <= maxEdits) {
+                    weights.merge(postings.get(termId), EDIT_PENALTY[distance], Float::sum);
+                    expansions++;
+                }
+            }
+        }
+    }
+
+    private boolean isCommon(Postings p) {
+        return p.size >= MIN_COMMON_POSTINGS && (long) p.size * COMMON_FRACTION > docCount;
+    }
+
+    // Document frequencies and lengths still count tombstones until the next compaction
+    private float idf(Postings p) {
+        return (float) Math.log(1 + (docCount - p.size + 0.5) / (p.size + 0.5));
+    }
+
+    private void ensureDocCapacity(int docs, int questionIds) {
+        if (docs > docLengths.length) {
+            int capacity = Math.max(docs, docLengths.length * 2);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+            docQuestionIds = Arrays.copyOf(docQuestionIds, capacity);
+        }
+        if (questionIds > docsByQuestionId.length) {
+            docsByQuestionId = Arrays.copyOf(docsByQuestionId, Math.max(questionIds, docsByQuestionId.length * 2));
+        }
+    }
+
+    /**
+     * Split text into lower-case letter/digit tokens
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Trigrams of the term padded with boundary markers, so short terms still get some
+    private static List<String> trigrams(String term) {
+        String padded = "^" + term + "$";
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    /**
+     * Edit distance (Levenshtein plus adjacent transpositions) that gives up
+     * once it exceeds maxEdits
+     * @return The distance, or maxEdits + 1 if it is larger than maxEdits
+     */
+    static int boundedEditDistance(String a, String b, int maxEdits) {
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], maxEdits + 1);
+    }
+}
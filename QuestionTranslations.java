@@ -0,0 +1,181 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * QuestionTranslations class - the translated text of one question, stored compactly
+ * Only text is translated; the question object itself keeps the shared,
+ * language-independent parts (category, points, answer, option layout).
+ * Translations live in one flat array with a fixed stride of question text
+ * plus one entry per option, ordered by locale ID. A bitmask records which
+ * locales are present, so finding a locale's slot is a bit count, and its
+ * fallback chain is a few bit tests. A translated string equal to the
+ * original is stored as null and costs nothing beyond the array slot.
+ * Instances are immutable and shared between copies of a question.
+ */
+public final class QuestionTranslations {
+    public static final QuestionTranslations NONE = new QuestionTranslations(0L, 0, new String[0]);
+
+    private final long localeMask;
+    private final int stride;
+    private final String[] texts;
+
+    private QuestionTranslations(long localeMask, int stride, String[] texts) {
+        this.localeMask = localeMask;
+        this.stride = stride;
+        this.texts = texts;
+    }
+
+    /**
+     * Add or replace the translation for one locale
+     * @param base The question being translated, for its option layout and original text
+     * @param options Translated options, one per option of the question
+     * @return A new instance; this one is unchanged
+     * @throws IllegalArgumentException if the text is blank or the option count differs
+     */
+    public QuestionTranslations with(Question base, QuizLocale locale, String questionText, List<String> options) {
+        int optionCount = base.getOptionCount();
+        if (questionText == null || questionText.trim().isEmpty()) {
+            throw new IllegalArgumentException("Translated question text cannot be empty");
+        }
+        if (options.size() != optionCount) {
+            throw new IllegalArgumentException("Expected " + optionCount + " translated options, got " + options.size());
+        }
+        if (localeMask != 0 && stride != optionCount + 1) {
+            throw new IllegalArgumentException("Translations do not match the question's options");
+        }
+
+        int newStride = optionCount + 1;
+        long bit = 1L << locale.getId();
+        int slot = slotOf(locale.getId());
+        boolean replacing = (localeMask & bit) != 0;
+        String[] newTexts = replacing ? texts.clone() : new String[texts.length + newStride];
+        if (!replacing) {
+            // Shift later locales up one slot to keep ID order
+            System.arraycopy(texts, 0, newTexts, 0, slot * newStride);
+            System.arraycopy(texts, slot * newStride, newTexts, (slot + 1) * newStride, texts.length - slot * newStride);
+        }
+        int at = slot * newStride;
+        newTexts[at] = sameOrNull(questionText, base.getQuestionText());
+        for (int i = 0; i < optionCount; i++) {
+            newTexts[at + 1 + i] = sameOrNull(options.get(i), base.getOptionText(i));
+        }
+        return new QuestionTranslations(localeMask | bit, newStride, newTexts);
+    }
+
+    /**
+     * Remove the translation for one locale
+     * @return A new instance, or this one if there was no such translation
+     */
+    public QuestionTranslations without(QuizLocale locale) {
+        long bit = 1L << locale.getId();
+        if ((localeMask & bit) == 0) {
+            return this;
+        }
+        if (localeMask == bit) {
+            return NONE;
+        }
+        int at = slotOf(locale.getId()) * stride;
+        String[] newTexts = new String[texts.length - stride];
+        System.arraycopy(texts, 0, newTexts, 0, at);
+        System.arraycopy(texts, at + stride, newTexts, at, newTexts.length - at);
+        return new QuestionTranslations(localeMask & ~bit, stride, newTexts);
+    }
+
+    /**
+     * Find the translation to use for a locale, following its fallback chain
+     * @return Offset of the translation's question text, or -1 to use the original
+     */
+    public int resolve(QuizLocale locale) {
+        if (locale == null || localeMask == 0) {
+            return -1;
+        }
+        for (int id : locale.getFallbackIds()) {
+            if ((localeMask & (1L << id)) != 0) {
+                return slotOf(id) * stride;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Question text at a resolved offset, or null if it is the same as the original
+     */
+    public String getText(int offset) {
+        return offset < 0 ? null : texts[offset];
+    }
+
+    /**
+     * Option text at a resolved offset, or null if it is the same as the original
+     */
+    public String getOption(int offset, int optionIndex) {
+        return offset < 0 || optionIndex < 0 || optionIndex + 1 >= stride ? null : texts[offset + 1 + optionIndex];
+    }
+
+    // Getters
+    public boolean isEmpty() { return localeMask == 0; }
+    public long getLocaleMask() { return localeMask; }
+    public int getLocaleCount() { return Long.bitCount(localeMask); }
+    public boolean hasLocale(QuizLocale locale) { return (localeMask & (1L << locale.getId())) != 0; }
+
+    /**
+     * Locales with a translation, in ID order
+     */
+    public List<QuizLocale> getLocales() {
+        List<QuizLocale> locales = new ArrayList<>(getLocaleCount());
+        for (long rest = localeMask; rest != 0; rest &= rest - 1) {
+            locales.add(QuizLocale.byId(Long.numberOfTrailingZeros(rest)));
+        }
+        return locales;
+    }
+
+    /**
+     * Characters of translated text actually stored (strings equal to the original are not counted)
+     */
+    public long getCharCount() {
+        long chars = 0;
+        for (String text : texts) {
+            if (text != null) {
+                chars += text.length();
+            }
+        }
+        return chars;
+    }
+
+    /**
+     * Number of translated strings stored
+     */
+    public int getStoredStringCount() {
+        int count = 0;
+        for (String text : texts) {
+            if (text != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Slot of a locale among present locales: how many present locales have a lower ID
+    private int slotOf(int localeId) {
+        return Long.bitCount(localeMask & ((1L << localeId) - 1));
+    }
+
+    private static String sameOrNull(String translated, String original) {
+        Objects.requireNonNull(translated, "Translated text cannot be null");
+        return translated.equals(original) ? null : translated;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+        QuestionTranslations other = (QuestionTranslations) obj;
+        return localeMask == other.localeMask && stride == other.stride && Arrays.equals(texts, other.texts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(localeMask) * 31 + Arrays.hashCode(texts);
+    }
+}
@@ -0,0 +1,509 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * QuizAnalytics - offline batch analytics over stored quiz history
+ * Produces per-category score percentiles and distributions, grade histograms,
+ * question discrimination indexes and player cohort trends. Work is split into
+ * two coarse chunks per fork-join worker; each chunk fills its own primitive
+ * accumulators, which are merged at the end, so the jobs scale with cores.
+ * Accumulator sizes depend on the number of categories, questions, grades and
+ * months, except for cohorts, which need each player's first month: a 64-bit
+ * hash and a month per distinct player, about 24 bytes each.
+ * Grades come from the ScoringEngine's scale, applied to each percentage.
+ * Result files are memory-mapped in segments, so they may exceed 2 GB.
+ *
+ * Usage: java QuizAnalytics <results file> <output directory>
+ *        The results file holds back-to-back QuizResultCodec records.
+ */
+public class QuizAnalytics {
+    // Share of attempts in each of the upper and lower groups for discrimination
+    private static final double GROUP_FRACTION = 0.27;
+    private static final double[] PERCENTILES = {10, 25, 50, 75, 90};
+    private static final int SCORE_BUCKETS = 101;
+    // Largest region of a results file mapped at once; segments end on record boundaries
+    private static final int SEGMENT_BYTES = 1 << 30;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: java QuizAnalytics <results file> <output directory>");
+            return;
+        }
+        Path input = Paths.get(args[0]);
+        Path outputDir = Paths.get(args[1]);
+
+        long start = System.nanoTime();
+        MappedRecords records = MappedRecords.map(input);
+        // Only IDs and scores are needed, so texts are not restored
+        Map<String, ColumnarTable> tables = analyze(records.count, records::decode, ScoringEngine.DEFAULT);
+        long elapsed = System.nanoTime() - start;
+
+        Files.createDirectories(outputDir);
+        for (Map.Entry<String, ColumnarTable> entry : tables.entrySet()) {
+            entry.getValue().writeTo(outputDir.resolve(entry.getKey() + ".qcol"));
+            System.out.println(entry.getValue().preview(10));
+        }
+        System.out.println(String.format("Analyzed %d results in %.2fs on %d workers; tables written to %s",
+                records.count, elapsed / 1e9, ForkJoinPool.getCommonPoolParallelism(), outputDir));
+    }
+
+    /**
+     * Run every analytics job over in-memory results
+     */
+    public static Map<String, ColumnarTable> analyze(List<QuizResult> results) {
+        return analyze(results, ScoringEngine.DEFAULT);
+    }
+
+    /**
+     * Run every analytics job over in-memory results, grading on an engine's scale
+     */
+    public static Map<String, ColumnarTable> analyze(List<QuizResult> results, ScoringEngine scoring) {
+        return analyze(results.size(), results::get, scoring);
+    }
+
+    /**
+     * Run every analytics job over results fetched by index
+     * @param resultAt Must be safe to call from several threads
+     * @param scoring Engine whose grade scale the grade histogram uses
+     * @return Output tables keyed by table name
+     */
+    public static Map<String, ColumnarTable> analyze(int count, IntFunction<QuizResult> resultAt, ScoringEngine scoring) {
+        int chunks = Math.max(1, Math.min(count, ForkJoinPool.getCommonPoolParallelism() * 2));
+
+        // Pass 1: score distributions, grades, first activity per player, bank size
+        ScoreStats scores = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    ScoreStats stats = new ScoreStats(scoring);
+                    for (int i = chunkStart(chunk, chunks, count); i < chunkStart(chunk + 1, chunks, count); i++) {
+                        stats.add(resultAt.apply(i));
+                    }
+                    return stats;
+                })
+                .reduce(ScoreStats::merge)
+                .orElseGet(() -> new ScoreStats(scoring));
+
+        // Upper and lower groups for discrimination come from the overall distribution
+        int lowerCutoff = percentileBucket(scores.overall, GROUP_FRACTION * 100);
+        int upperCutoff = percentileBucket(scores.overall, (1 - GROUP_FRACTION) * 100);
+        int questionCount = scores.maxQuestionId + 1;
+
+        // Pass 2: per-question statistics and cohort trends
+        ItemStats items = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    ItemStats stats = new ItemStats(questionCount);
+                    for (int i = chunkStart(chunk, chunks, count); i < chunkStart(chunk + 1, chunks, count); i++) {
+                        stats.add(resultAt.apply(i), lowerCutoff, upperCutoff, scores.firstMonthByPlayer);
+                    }
+                    return stats;
+                })
+                .reduce(ItemStats::merge)
+                .orElseGet(() -> new ItemStats(questionCount));
+
+        Map<String, ColumnarTable> tables = new LinkedHashMap<>();
+        tables.put("category_scores", categoryScoresTable(scores));
+        tables.put("score_distribution", scoreDistributionTable(scores));
+        tables.put("grade_histogram", gradeHistogramTable(scores, scoring.getGrades()));
+        tables.put("question_discrimination", discriminationTable(items));
+        tables.put("cohort_trends", cohortTable(items));
+        return tables;
+    }
+
+    // Records of a results file, mapped in segments that never split a record
+    private static class MappedRecords {
+        final List<ByteBuffer> segments = new ArrayList<>();
+        // Segment index in the high 32 bits, offset within the segment in the low 32
+        long[] positions = new long[1024];
+        int count;
+
+        static MappedRecords map(Path file) throws IOException {
+            MappedRecords records = new MappedRecords();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                long size = channel.size();
+                long base = 0;
+                while (base < size) {
+                    int length = (int) Math.min(SEGMENT_BYTES, size - base);
+                    ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, base, length);
+                    int offset = 0;
+                    while (offset < length) {
+                        int recordSize = QuizResultCodec.recordSize(segment, offset);
+                        if (recordSize < 0 || recordSize > length - offset) break;
+                        records.add(records.segments.size(), offset);
+                        offset += recordSize;
+                    }
+                    if (offset == 0) {
+                        throw new IllegalArgumentException(length < SEGMENT_BYTES ? "Truncated quiz result record" :
+                                "Quiz result record at byte " + base + " is larger than " + SEGMENT_BYTES + " bytes");
+                    }
+                    records.segments.add(segment);
+                    base += offset;
+                }
+            }
+            // Mappings stay valid after the channel is closed
+            return records;
+        }
+
+        private void add(int segment, int offset) {
+            if (count == positions.length) {
+                if (count == Integer.MAX_VALUE - 8) {
+                    throw new IllegalArgumentException("Too many quiz result records");
+                }
+                positions = Arrays.copyOf(positions, (int) Math.min(Integer.MAX_VALUE - 8, count * 2L));
+            }
+            positions[count++] = (long) segment << 32 | offset;
+        }
+
+        // Safe from several threads: each call reads through its own view of the segment
+        QuizResult decode(int index) {
+            ByteBuffer in = segments.get((int) (positions[index] >>> 32)).duplicate();
+            in.position((int) positions[index]);
+            return QuizResultCodec.decode(in, null);
+        }
+    }
+
+    // Earliest activity month per player in an open-addressing table keyed by a
+    // 64-bit hash of the name; a collision would need billions of players
+    private static class FirstMonths {
+        long[] keys = new long[1024];
+        int[] months = new int[1024];
+        int size;
+
+        void merge(String playerName, int month) {
+            merge(hash(playerName), month);
+        }
+
+        private void merge(long key, int month) {
+            int mask = keys.length - 1;
+            int i = (int) key & mask;
+            while (keys[i] != 0) {
+                if (keys[i] == key) {
+                    months[i] = Math.min(months[i], month);
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            months[i] = month;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        int get(String playerName) {
+            long key = hash(playerName);
+            int mask = keys.length - 1;
+            for (int i = (int) key & mask; keys[i] != 0; i = (i + 1) & mask) {
+                if (keys[i] == key) return months[i];
+            }
+            throw new IllegalStateException("No first month recorded for " + playerName);
+        }
+
+        FirstMonths mergeAll(FirstMonths other) {
+            for (int i = 0; i < other.keys.length; i++) {
+                if (other.keys[i] != 0) merge(other.keys[i], other.months[i]);
+            }
+            return this;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldMonths = months;
+            keys = new long[oldKeys.length * 2];
+            months = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) merge(oldKeys[i], oldMonths[i]);
+            }
+        }
+
+        // FNV-1a over the characters with a murmur finalizer; 0 is reserved for empty slots
+        private static long hash(String playerName) {
+            long h = 0xcbf29ce484222325L;
+            if (playerName != null) {
+                for (int i = 0; i < playerName.length(); i++) {
+                    h = (h ^ playerName.charAt(i)) * 0x100000001b3L;
+                }
+            } else {
+                h = 0x9E3779B97F4A7C15L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            return h == 0 ? 1 : h;
+        }
+    }
+
+    // Per-chunk accumulator for pass 1
+    private static class ScoreStats {
+        final Map<String, long[]> histogramByCategory = new HashMap<>();
+        final Map<String, long[]> gradesByCategory = new HashMap<>();
+        final Map<String, double[]> scoreSumByCategory = new HashMap<>();
+        final long[] overall = new long[SCORE_BUCKETS];
+        final FirstMonths firstMonthByPlayer = new FirstMonths();
+        final ScoringEngine scoring;
+        final int gradeCount;
+        int maxQuestionId = -1;
+
+        ScoreStats(ScoringEngine scoring) {
+            this.scoring = scoring;
+            this.gradeCount = scoring.getGrades().size();
+        }
+
+        void add(QuizResult result) {
+            String category = result.getCategory();
+            int bucket = scoreBucket(result);
+            histogramByCategory.computeIfAbsent(category, k -> new long[SCORE_BUCKETS])[bucket]++;
+            overall[bucket]++;
+            gradesByCategory.computeIfAbsent(category, k -> new long[gradeCount])[scoring.getGradeBand(result.getPercentageScore())]++;
+            scoreSumByCategory.computeIfAbsent(category, k -> new double[1])[0] += result.getPercentageScore();
+            firstMonthByPlayer.merge(result.getPlayerName(), monthIndex(result.getCompletionTime()));
+            for (int i = 0; i < result.getQuestionResultCount(); i++) {
+                maxQuestionId = Math.max(maxQuestionId, result.getQuestionResult(i).getQuestionId());
+            }
+        }
+
+        ScoreStats merge(ScoreStats other) {
+            other.histogramByCategory.forEach((k, v) -> addInto(histogramByCategory.computeIfAbsent(k, x -> new long[SCORE_BUCKETS]), v));
+            other.gradesByCategory.forEach((k, v) -> addInto(gradesByCategory.computeIfAbsent(k, x -> new long[gradeCount]), v));
+            other.scoreSumByCategory.forEach((k, v) -> scoreSumByCategory.computeIfAbsent(k, x -> new double[1])[0] += v[0]);
+            addInto(overall, other.overall);
+            firstMonthByPlayer.mergeAll(other.firstMonthByPlayer);
+            maxQuestionId = Math.max(maxQuestionId, other.maxQuestionId);
+            return this;
+        }
+    }
+
+    // Per-chunk accumulator for pass 2
+    private static class ItemStats {
+        final int[] attempts, correct, upperAttempts, upperCorrect, lowerAttempts, lowerCorrect;
+        // Keyed by cohort month * 2^20 + activity month; values are {score sum, attempts}
+        final Map<Long, double[]> cohortCells = new HashMap<>();
+
+        ItemStats(int questionCount) {
+            attempts = new int[questionCount];
+            correct = new int[questionCount];
+            upperAttempts = new int[questionCount];
+            upperCorrect = new int[questionCount];
+            lowerAttempts = new int[questionCount];
+            lowerCorrect = new int[questionCount];
+        }
+
+        void add(QuizResult result, int lowerCutoff, int upperCutoff, FirstMonths firstMonthByPlayer) {
+            int bucket = scoreBucket(result);
+            boolean upper = bucket >= upperCutoff;
+            boolean lower = bucket <= lowerCutoff;
+            for (int i = 0; i < result.getQuestionResultCount(); i++) {
+                QuizResult.QuestionResult qr = result.getQuestionResult(i);
+                int id = qr.getQuestionId();
+                if (id < 0) continue;
+                int hit = qr.isCorrect() ? 1 : 0;
+                attempts[id]++;
+                correct[id] += hit;
+                if (upper) {
+                    upperAttempts[id]++;
+                    upperCorrect[id] += hit;
+                }
+                if (lower) {
+                    lowerAttempts[id]++;
+                    lowerCorrect[id] += hit;
+                }
+            }
+
+            long cohort = firstMonthByPlayer.get(result.getPlayerName());
+            long key = (cohort << 20) | monthIndex(result.getCompletionTime());
+            double[] cell = cohortCells.computeIfAbsent(key, k -> new double[2]);
+            cell[0] += result.getPercentageScore();
+            cell[1]++;
+        }
+
+        ItemStats merge(ItemStats other) {
+            addInto(attempts, other.attempts);
+            addInto(correct, other.correct);
+            addInto(upperAttempts, other.upperAttempts);
+            addInto(upperCorrect, other.upperCorrect);
+            addInto(lowerAttempts, other.lowerAttempts);
+            addInto(lowerCorrect, other.lowerCorrect);
+            other.cohortCells.forEach((k, v) -> {
+                double[] cell = cohortCells.computeIfAbsent(k, x -> new double[2]);
+                cell[0] += v[0];
+                cell[1] += v[1];
+            });
+            return this;
+        }
+    }
+
+    private static ColumnarTable categoryScoresTable(ScoreStats scores) {
+        List<String> categories = new ArrayList<>(new TreeMap<>(scores.histogramByCategory).keySet());
+        int rows = categories.size();
+        String[] category = new String[rows];
+        long[] attempts = new long[rows];
+        double[] mean = new double[rows];
+        double[][] percentiles = new double[PERCENTILES.length][rows];
+        for (int r = 0; r < rows; r++) {
+            long[] histogram = scores.histogramByCategory.get(categories.get(r));
+            category[r] = categories.get(r);
+            attempts[r] = Arrays.stream(histogram).sum();
+            mean[r] = scores.scoreSumByCategory.get(categories.get(r))[0] / attempts[r];
+            for (int p = 0; p < PERCENTILES.length; p++) {
+                percentiles[p][r] = percentileBucket(histogram, PERCENTILES[p]);
+            }
+        }
+        ColumnarTable table = new ColumnarTable("category_scores", rows)
+                .addStringColumn("category", category)
+                .addLongColumn("attempts", attempts)
+                .addDoubleColumn("mean_percentage", mean);
+        for (int p = 0; p < PERCENTILES.length; p++) {
+            table.addDoubleColumn("p" + (int) PERCENTILES[p], percentiles[p]);
+        }
+        return table;
+    }
+
+    // Decile buckets: 0-9, 10-19, ..., 90-100
+    private static ColumnarTable scoreDistributionTable(ScoreStats scores) {
+        List<String> categories = new ArrayList<>(new TreeMap<>(scores.histogramByCategory).keySet());
+        int rows = categories.size() * 10;
+        String[] category = new String[rows];
+        long[] bucketStart = new long[rows];
+        long[] count = new long[rows];
+        int row = 0;
+        for (String name : categories) {
+            long[] histogram = scores.histogramByCategory.get(name);
+            for (int decile = 0; decile < 10; decile++, row++) {
+                category[row] = name;
+                bucketStart[row] = decile * 10;
+                int end = decile == 9 ? SCORE_BUCKETS : (decile + 1) * 10;
+                for (int b = decile * 10; b < end; b++) {
+                    count[row] += histogram[b];
+                }
+            }
+        }
+        return new ColumnarTable("score_distribution", rows)
+                .addStringColumn("category", category)
+                .addLongColumn("percentage_from", bucketStart)
+                .addLongColumn("attempts", count);
+    }
+
+    private static ColumnarTable gradeHistogramTable(ScoreStats scores, List<String> grades) {
+        List<String> categories = new ArrayList<>(new TreeMap<>(scores.gradesByCategory).keySet());
+        int rows = categories.size() * grades.size();
+        String[] category = new String[rows];
+        String[] grade = new String[rows];
+        long[] count = new long[rows];
+        int row = 0;
+        for (String name : categories) {
+            long[] counts = scores.gradesByCategory.get(name);
+            for (int g = 0; g < grades.size(); g++, row++) {
+                category[row] = name;
+                grade[row] = grades.get(g);
+                count[row] = counts[g];
+            }
+        }
+        return new ColumnarTable("grade_histogram", rows)
+                .addStringColumn("category", category)
+                .addStringColumn("grade", grade)
+                .addLongColumn("attempts", count);
+    }
+
+    // Discrimination index D = p(upper group correct) - p(lower group correct)
+    private static ColumnarTable discriminationTable(ItemStats items) {
+        int rows = 0;
+        for (int attempts : items.attempts) {
+            if (attempts > 0) rows++;
+        }
+        long[] questionId = new long[rows];
+        long[] attempts = new long[rows];
+        double[] difficulty = new double[rows];
+        double[] discrimination = new double[rows];
+        int row = 0;
+        for (int id = 0; id < items.attempts.length; id++) {
+            if (items.attempts[id] == 0) continue;
+            questionId[row] = id;
+            attempts[row] = items.attempts[id];
+            difficulty[row] = (double) items.correct[id] / items.attempts[id];
+            double upper = items.upperAttempts[id] == 0 ? 0 : (double) items.upperCorrect[id] / items.upperAttempts[id];
+            double lower = items.lowerAttempts[id] == 0 ? 0 : (double) items.lowerCorrect[id] / items.lowerAttempts[id];
+            discrimination[row] = upper - lower;
+            row++;
+        }
+        return new ColumnarTable("question_discrimination", rows)
+                .addLongColumn("question_id", questionId)
+                .addLongColumn("attempts", attempts)
+                .addDoubleColumn("p_correct", difficulty)
+                .addDoubleColumn("discrimination", discrimination);
+    }
+
+    private static ColumnarTable cohortTable(ItemStats items) {
+        Map<Long, double[]> sorted = new TreeMap<>(items.cohortCells);
+        int rows = sorted.size();
+        String[] cohort = new String[rows];
+        String[] month = new String[rows];
+        long[] attempts = new long[rows];
+        double[] mean = new double[rows];
+        int row = 0;
+        for (Map.Entry<Long, double[]> entry : sorted.entrySet()) {
+            cohort[row] = monthLabel((int) (entry.getKey() >>> 20));
+            month[row] = monthLabel((int) (entry.getKey() & ((1 << 20) - 1)));
+            attempts[row] = (long) entry.getValue()[1];
+            mean[row] = entry.getValue()[0] / entry.getValue()[1];
+            row++;
+        }
+        return new ColumnarTable("cohort_trends", rows)
+                .addStringColumn("cohort_month", cohort)
+                .addStringColumn("activity_month", month)
+                .addLongColumn("attempts", attempts)
+                .addDoubleColumn("mean_percentage", mean);
+    }
+
+    // Whole-percent bucket, 0-100
+    private static int scoreBucket(QuizResult result) {
+        return (int) Math.max(0, Math.min(100, Math.floor(result.getPercentageScore())));
+    }
+
+    // Smallest bucket at or below which the given percent of the counts fall
+    private static int percentileBucket(long[] histogram, double percentile) {
+        long total = Arrays.stream(histogram).sum();
+        if (total == 0) return 0;
+        long target = (long) Math.ceil(percentile / 100.0 * total);
+        long seen = 0;
+        for (int b = 0; b < histogram.length; b++) {
+            seen += histogram[b];
+            if (seen >= target && seen > 0) return b;
+        }
+        return histogram.length - 1;
+    }
+
+    private static int monthIndex(LocalDateTime time) {
+        return time.getYear() * 12 + time.getMonthValue() - 1;
+    }
+
+    private static String monthLabel(int monthIndex) {
+        return String.format("%04d-%02d", monthIndex / 12, monthIndex % 12 + 1);
+    }
+
+    private static int chunkStart(int chunk, int chunks, int count) {
+        return (int) ((long) count * chunk / chunks);
+    }
+
+    private static void addInto(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) target[i] += source[i];
+    }
+
+    private static void addInto(int[] target, int[] source) {
+        for (int i = 0; i < target.length; i++) target[i] += source[i];
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * QuizBlueprint class describing the make-up of a generated quiz
+ * Each stratum is a category or difficulty level with a relative weight,
+ * e.g. 40% Science, 30% Mathematics, 30% hard
+ */
+public class QuizBlueprint {
+    private final List<Stratum> strata;
+
+    // Constructor
+    public QuizBlueprint() {
+        this.strata = new ArrayList<>();
+    }
+
+    // Inner class describing one slice of the blueprint
+    public static class Stratum {
+        private final boolean byCategory;
+        private final String key;
+        private final double weight;
+
+        public Stratum(boolean byCategory, String key, double weight) {
+            this.byCategory = byCategory;
+            this.key = key;
+            this.weight = weight;
+        }
+
+        // Getters
+        public boolean isByCategory() { return byCategory; }
+        public String getKey() { return key; }
+        public double getWeight() { return weight; }
+
+        @Override
+        public String toString() {
+            return (byCategory ? "category" : "difficulty") + ":" + key + "=" + weight;
+        }
+    }
+
+    /**
+     * Add a category stratum
+     * @param category Category name as used by QuizManager
+     * @param weight Relative share of the quiz (any positive scale)
+     */
+    public QuizBlueprint addCategory(String category, double weight) {
+        return addStratum(new Stratum(true, category, weight));
+    }
+
+    /**
+     * Add a difficulty stratum
+     * @param difficulty "easy", "medium" or "hard"
+     * @param weight Relative share of the quiz (any positive scale)
+     */
+    public QuizBlueprint addDifficulty(String difficulty, double weight) {
+        return addStratum(new Stratum(false, difficulty.toLowerCase(), weight));
+    }
+
+    private QuizBlueprint addStratum(Stratum stratum) {
+        if (stratum.getKey() == null || stratum.getKey().trim().isEmpty()) {
+            throw new IllegalArgumentException("Stratum key must not be empty");
+        }
+        if (!(stratum.getWeight() > 0)) {
+            throw new IllegalArgumentException("Stratum weight must be positive");
+        }
+        strata.add(stratum);
+        return this;
+    }
+
+    // Getters
+    public List<Stratum> getStrata() { return Collections.unmodifiableList(strata); }
+    public boolean isEmpty() { return strata.isEmpty(); }
+
+    @Override
+    public String toString() {
+        return "QuizBlueprint" + strata;
+    }
+}
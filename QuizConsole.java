@@ -0,0 +1,40 @@
+/**
+ * QuizConsole interface for the application's text input and output
+ * Lets the quiz run against a real terminal or headless for scripted and load tests
+ */
+public interface QuizConsole {
+    /**
+     * Write text without a line break
+     */
+    void print(String text);
+
+    /**
+     * Write text followed by a line break
+     */
+    void println(String text);
+
+    /**
+     * Write an empty line
+     */
+    default void println() {
+        println("");
+    }
+
+    /**
+     * Read the next line of input. Pending output is flushed first so the
+     * user sees the whole screen before being asked for input.
+     * @return The line without its terminator
+     * @throws java.util.NoSuchElementException if input has ended
+     */
+    String readLine();
+
+    /**
+     * Push any buffered output to its destination
+     */
+    void flush();
+
+    /**
+     * Flush output and release the underlying streams
+     */
+    void close();
+}
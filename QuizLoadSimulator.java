@@ -0,0 +1,490 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * QuizLoadSimulator - headless load generator for the quiz engine
+ * Runs many synthetic players through QuizManager.createQuiz and
+ * QuizResult.addQuestionResult on all cores, then reports throughput,
+ * latency percentiles, GC activity and allocation.
+ * With editors > 0, background threads keep editing the bank during the run,
+ * each at up to editRate edits per second, and every graded answer is checked
+ * against the question version it was served.
+ *
+ * Usage: java QuizLoadSimulator [players=100000] [questions=5] [threads=N]
+ *        [accuracy=0.7] [accuracySpread=0.15] [answerMedianMs=8000]
+ *        [answerSigma=0.6] [warmup=20000] [editors=0] [editRate=1000] [save=results.bin]
+ *        [seed=42] [anticheat=false] [cheaters=0.0]
+ *
+ * With save set, the measured run's results are written as QuizResultCodec
+ * records with completion times spread over the past year, ready for QuizAnalytics.
+ * With anticheat=true every answer also goes through an AnswerAnomalyDetector;
+ * cheaters is the share of players who copy the previous player's quiz and
+ * answers at implausible speed, and the report shows how many were flagged.
+ */
+public class QuizLoadSimulator {
+    private final QuizManager quizManager;
+    private final List<String> categories;
+    private final Config config;
+
+    // Simulation settings
+    public static class Config {
+        int players = 100_000;
+        int questionsPerQuiz = 5;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double accuracyMean = 0.7;
+        double accuracySpread = 0.15;
+        double answerMedianMs = 8000;
+        double answerSigma = 0.6;
+        int warmupPlayers = 20_000;
+        int editors = 0;
+        // Edits per second per editor thread
+        int editRate = 1_000;
+        String savePath = null;
+        long seed = 42;
+        boolean antiCheat = false;
+        double cheaterShare = 0.0;
+
+        static Config parse(String[] args) {
+            Config config = new Config();
+            BenchmarkSupport.Options options = BenchmarkSupport.parseOptions(args, "players", "questions", "threads",
+                    "accuracy", "accuracySpread", "answerMedianMs", "answerSigma", "warmup", "editors", "editRate",
+                    "save", "seed", "anticheat", "cheaters");
+            config.players = options.getInt("players", config.players);
+            config.questionsPerQuiz = options.getInt("questions", config.questionsPerQuiz);
+            config.threads = options.getInt("threads", config.threads);
+            config.accuracyMean = options.getDouble("accuracy", config.accuracyMean);
+            config.accuracySpread = options.getDouble("accuracySpread", config.accuracySpread);
+            config.answerMedianMs = options.getDouble("answerMedianMs", config.answerMedianMs);
+            config.answerSigma = options.getDouble("answerSigma", config.answerSigma);
+            config.warmupPlayers = options.getInt("warmup", config.warmupPlayers);
+            config.editors = options.getInt("editors", config.editors);
+            config.editRate = options.getInt("editRate", config.editRate);
+            config.savePath = options.getString("save", config.savePath);
+            config.seed = options.getLong("seed", config.seed);
+            config.antiCheat = options.getBoolean("anticheat", config.antiCheat);
+            config.cheaterShare = options.getDouble("cheaters", config.cheaterShare);
+            if (config.players <= 0 || config.threads <= 0 || config.questionsPerQuiz <= 0) {
+                throw new IllegalArgumentException("players, questions and threads must be positive");
+            }
+            if (config.editors < 0) {
+                throw new IllegalArgumentException("editors must not be negative");
+            }
+            if (config.editRate <= 0) {
+                throw new IllegalArgumentException("editRate must be positive");
+            }
+            if (config.cheaterShare < 0 || config.cheaterShare > 1) {
+                throw new IllegalArgumentException("cheaters must be between 0 and 1");
+            }
+            if (config.cheaterShare > 0) {
+                config.antiCheat = true;
+            }
+            return config;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("players=%d questions=%d threads=%d accuracy=%.2f+/-%.2f answerMedianMs=%.0f answerSigma=%.2f editors=%d editRate=%d anticheat=%b cheaters=%.2f",
+                    players, questionsPerQuiz, threads, accuracyMean, accuracySpread, answerMedianMs, answerSigma, editors, editRate,
+                    antiCheat, cheaterShare);
+        }
+    }
+
+    // Per-worker measurements, merged after the run
+    private static class WorkerStats {
+        final long[] quizLatencyNanos;
+        final long[] sessionLatencyNanos;
+        int sessions;
+        long answers;
+        long correct;
+        long simulatedAnswerMs;
+        long gradingMismatches;
+        long allocatedBytes;
+        byte[] saved = new byte[0];
+        int savedLength;
+        final long[] cheaterSessions;
+        int cheaters;
+
+        WorkerStats(int capacity) {
+            this.quizLatencyNanos = new long[capacity];
+            this.sessionLatencyNanos = new long[capacity];
+            this.cheaterSessions = new long[capacity];
+        }
+    }
+
+    public QuizLoadSimulator(QuizManager quizManager, Config config) {
+        this.quizManager = quizManager;
+        this.categories = new ArrayList<>(quizManager.getAvailableCategories());
+        this.config = config;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.parse(args);
+        QuizLoadSimulator simulator = new QuizLoadSimulator(new QuizManager(), config);
+        System.out.println("Config: " + config);
+
+        if (config.warmupPlayers > 0) {
+            System.out.println("Warming up with " + config.warmupPlayers + " players...");
+            simulator.run(config.warmupPlayers, config.seed ^ 0x9E3779B97F4A7C15L, null);
+        }
+        System.out.println(simulator.run(config.players, config.seed, config.savePath));
+    }
+
+    /**
+     * Simulate the given number of players and return a printable report
+     */
+    public String run(int players, long seed, String savePath) throws Exception {
+        boolean save = savePath != null;
+        int threads = config.threads;
+        Map<String, long[]> gcBefore = gcSnapshot();
+        long start = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads + config.editors);
+        List<Future<WorkerStats>> futures = new ArrayList<>();
+        List<Future<?>> editorFutures = new ArrayList<>();
+        AtomicBoolean editing = new AtomicBoolean(true);
+        AtomicLong edits = new AtomicLong();
+        Map<Long, Integer> flaggedSessions = new ConcurrentHashMap<>();
+        AnswerAnomalyDetector detector = config.antiCheat ?
+                new AnswerAnomalyDetector(flag -> flaggedSessions.merge(flag.getSessionId(), 1 << flag.getKind().ordinal(), (a, b) -> a | b)) :
+                null;
+        try {
+            for (int e = 0; e < config.editors; e++) {
+                long editorSeed = seed * 31 + e;
+                editorFutures.add(pool.submit(() -> editContinuously(editing, edits, editorSeed)));
+            }
+            for (int t = 0; t < threads; t++) {
+                int from = (int) ((long) players * t / threads);
+                int to = (int) ((long) players * (t + 1) / threads);
+                long workerSeed = seed + t;
+                futures.add(pool.submit(() -> simulatePlayers(from, to, workerSeed, save, detector)));
+            }
+            List<WorkerStats> results = new ArrayList<>();
+            for (Future<WorkerStats> future : futures) {
+                results.add(future.get());
+            }
+            long elapsed = System.nanoTime() - start;
+            editing.set(false);
+            // An editor that died would otherwise go unnoticed behind a clean report
+            for (Future<?> future : editorFutures) {
+                future.get();
+            }
+            if (save) {
+                saveResults(results, savePath);
+            }
+            String report = report(results, elapsed, edits.get(), gcBefore, gcSnapshot());
+            if (detector != null) {
+                report += antiCheatReport(results, detector, flaggedSessions);
+            }
+            return report;
+        } finally {
+            editing.set(false);
+            pool.shutdown();
+            if (detector != null) {
+                detector.close();
+            }
+        }
+    }
+
+    // Rotate a random question's options so the right answer moves to a different index,
+    // pacing attempts so editors don't take a core away from the simulated players
+    private void editContinuously(AtomicBoolean editing, AtomicLong edits, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long intervalNanos = 1_000_000_000L / config.editRate;
+        long next = System.nanoTime();
+        while (editing.get()) {
+            next += intervalNanos;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (wait < -intervalNanos) {
+                // Fell behind; don't burst to catch up
+                next = System.nanoTime();
+            }
+            QuestionBankSnapshot bank = quizManager.getSnapshot();
+            Question original = bank.getQuestion(random.nextInt(bank.size()));
+            if (original.getType() != Question.Type.SINGLE_CHOICE) {
+                continue;
+            }
+            Question edited = original.copy();
+            List<String> options = edited.getOptions();
+            options.add(options.remove(0));
+            edited.setOptions(options);
+            edited.setCorrectAnswerIndex((edited.getCorrectAnswerIndex() + options.size() - 1) % options.size());
+            if (quizManager.updateQuestion(edited)) {
+                edits.incrementAndGet();
+            }
+        }
+    }
+
+    private static void saveResults(List<WorkerStats> results, String savePath) throws IOException {
+        try (OutputStream out = Files.newOutputStream(Paths.get(savePath))) {
+            for (WorkerStats stats : results) {
+                out.write(stats.saved, 0, stats.savedLength);
+            }
+        }
+    }
+
+    private WorkerStats simulatePlayers(int from, int to, long seed, boolean save, AnswerAnomalyDetector detector) {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDateTime now = LocalDateTime.now();
+        WorkerStats stats = new WorkerStats(to - from);
+        long allocatedBefore = BenchmarkSupport.threadAllocatedBytes();
+        List<Question> previousQuiz = null;
+        int[] previousSelections = null;
+        String previousCategory = null;
+
+        for (int player = from; player < to; player++) {
+            String category = categories.get(random.nextInt(categories.size()));
+            double accuracy = clamp(config.accuracyMean + config.accuracySpread * gaussian(random), 0.0, 1.0);
+            // A cheater copies the previous player's quiz and answers, quickly
+            boolean cheater = previousQuiz != null && random.nextDouble() < config.cheaterShare;
+
+            long sessionStart = System.nanoTime();
+            QuestionBankSnapshot bank = quizManager.getSnapshot();
+            List<Question> quiz;
+            if (cheater) {
+                category = previousCategory;
+                quiz = previousQuiz;
+            } else {
+                quiz = quizManager.createQuiz(bank, category, config.questionsPerQuiz);
+            }
+            long quizCreated = System.nanoTime();
+
+            String playerName = "player-" + player;
+            QuizResult result = new QuizResult(playerName, category, bank.getVersion(), quizManager.getScoringEngine());
+            long sessionId = detector == null ? 0 : detector.startSession(playerName, category);
+            int[] selections = new int[quiz.size()];
+            long simulatedMs = 0;
+            for (int q = 0; q < quiz.size(); q++) {
+                Question question = quiz.get(q);
+                int optionCount = question.getOptionCount();
+                int selected;
+                long answerMs;
+                if (cheater) {
+                    selected = previousSelections[q];
+                    answerMs = (long) (600 * Math.exp(0.3 * gaussian(random)));
+                } else {
+                    if (random.nextDouble() < accuracy) {
+                        selected = question.getCorrectAnswerIndex();
+                    } else {
+                        // Any wrong option, uniformly
+                        selected = random.nextInt(optionCount - 1);
+                        if (selected >= question.getCorrectAnswerIndex()) selected++;
+                    }
+                    answerMs = (long) (config.answerMedianMs * Math.exp(config.answerSigma * gaussian(random)));
+                }
+                simulatedMs += answerMs;
+                selections[q] = selected;
+                result.addQuestionResult(question, selected, question.getOptionText(selected), answerMs);
+                if (detector != null) {
+                    detector.onAnswer(sessionId, question, result.getQuestionResult(q));
+                }
+            }
+            if (detector != null) {
+                detector.endSession(sessionId);
+            }
+            result.setTimeTakenSeconds(simulatedMs / 1000);
+            long sessionEnd = System.nanoTime();
+            if (cheater) {
+                stats.cheaterSessions[stats.cheaters++] = sessionId;
+            }
+            previousQuiz = quiz;
+            previousSelections = selections;
+            previousCategory = category;
+            stats.gradingMismatches += countGradingMismatches(quiz, selections, result);
+
+            if (save) {
+                result.setCompletionTime(now.minusMinutes(random.nextInt(365 * 24 * 60)));
+                int needed = stats.savedLength + QuizResultCodec.maxEncodedSize(result);
+                if (needed > stats.saved.length) {
+                    stats.saved = Arrays.copyOf(stats.saved, Math.max(needed, stats.saved.length * 2));
+                }
+                stats.savedLength = QuizResultCodec.encode(result, stats.saved, stats.savedLength);
+            }
+
+            int i = stats.sessions++;
+            stats.quizLatencyNanos[i] = quizCreated - sessionStart;
+            stats.sessionLatencyNanos[i] = sessionEnd - sessionStart;
+            stats.answers += result.getTotalQuestions();
+            stats.correct += result.getCorrectAnswers();
+            stats.simulatedAnswerMs += simulatedMs;
+        }
+
+        long allocatedAfter = BenchmarkSupport.threadAllocatedBytes();
+        stats.allocatedBytes = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+        return stats;
+    }
+
+    // Grading must match the pinned questions no matter what edits happened meanwhile
+    private static int countGradingMismatches(List<Question> quiz, int[] selections, QuizResult result) {
+        int mismatches = 0;
+        int expectedScore = 0;
+        List<QuizResult.QuestionResult> graded = result.getQuestionResults();
+        for (int q = 0; q < quiz.size(); q++) {
+            Question question = quiz.get(q);
+            boolean expectedCorrect = selections[q] == question.getCorrectAnswerIndex();
+            expectedScore += result.getScoringEngine().score(question.getPoints(), expectedCorrect,
+                                                             graded.get(q).getAnswerMillis());
+            if (graded.get(q).isCorrect() != expectedCorrect ||
+                !graded.get(q).getCorrectAnswer().equals(question.getOptionText(question.getCorrectAnswerIndex()))) {
+                mismatches++;
+            }
+        }
+        if (expectedScore != result.getTotalScore()) {
+            mismatches++;
+        }
+        return mismatches;
+    }
+
+    private String report(List<WorkerStats> results, long elapsedNanos, long edits,
+                          Map<String, long[]> gcBefore, Map<String, long[]> gcAfter) {
+        int sessions = 0;
+        long answers = 0, correct = 0, simulatedMs = 0, allocated = 0, mismatches = 0;
+        boolean allocationKnown = true;
+        for (WorkerStats stats : results) {
+            sessions += stats.sessions;
+            answers += stats.answers;
+            correct += stats.correct;
+            simulatedMs += stats.simulatedAnswerMs;
+            mismatches += stats.gradingMismatches;
+            if (stats.allocatedBytes < 0) {
+                allocationKnown = false;
+            } else {
+                allocated += stats.allocatedBytes;
+            }
+        }
+        long[] quizLatency = merge(results, true, sessions);
+        long[] sessionLatency = merge(results, false, sessions);
+        double seconds = elapsedNanos / 1e9;
+
+        StringBuilder report = new StringBuilder();
+        report.append("=".repeat(60)).append("\n");
+        report.append("                 LOAD SIMULATION REPORT\n");
+        report.append("=".repeat(60)).append("\n");
+        report.append(String.format("Sessions: %d in %.2fs (%d threads)%n", sessions, seconds, config.threads));
+        report.append(String.format("Throughput: %.0f sessions/s, %.0f answers/s%n", sessions / seconds, answers / seconds));
+        report.append(String.format("Observed accuracy: %.1f%%%n", answers == 0 ? 0.0 : 100.0 * correct / answers));
+        report.append(String.format("Mean simulated answer time: %.0f ms%n", answers == 0 ? 0.0 : (double) simulatedMs / answers));
+        if (config.editors > 0) {
+            report.append(String.format("Bank edits during run: %d (%.0f/s)%n", edits, edits / seconds));
+        }
+        report.append("Grading mismatches: ").append(mismatches).append("\n");
+        report.append("-".repeat(60)).append("\n");
+        report.append("LATENCY (microseconds):\n");
+        report.append(percentileLine("createQuiz", quizLatency));
+        report.append(percentileLine("full session", sessionLatency));
+        report.append("-".repeat(60)).append("\n");
+        report.append("GC AND ALLOCATION:\n");
+        for (Map.Entry<String, long[]> entry : gcAfter.entrySet()) {
+            long[] before = gcBefore.getOrDefault(entry.getKey(), new long[2]);
+            report.append(String.format("- %s: %d collections, %d ms%n", entry.getKey(),
+                    entry.getValue()[0] - before[0], entry.getValue()[1] - before[1]));
+        }
+        if (allocationKnown) {
+            report.append(String.format("Allocated: %.1f MB total, %.0f bytes/session, %.1f MB/s%n",
+                    allocated / 1e6, sessions == 0 ? 0.0 : (double) allocated / sessions, allocated / 1e6 / seconds));
+        } else {
+            report.append("Allocated: not supported by this JVM\n");
+        }
+        report.append("=".repeat(60)).append("\n");
+        return report.toString();
+    }
+
+    private static String antiCheatReport(List<WorkerStats> results, AnswerAnomalyDetector detector,
+                                          Map<Long, Integer> flaggedSessions) throws InterruptedException {
+        boolean caughtUp = detector.awaitIdle(30_000);
+        Set<Long> cheaters = new HashSet<>();
+        for (WorkerStats stats : results) {
+            for (int i = 0; i < stats.cheaters; i++) {
+                cheaters.add(stats.cheaterSessions[i]);
+            }
+        }
+        int[] flagsByKind = new int[AnswerAnomalyDetector.Kind.values().length];
+        int cheatersFlagged = 0;
+        for (Map.Entry<Long, Integer> entry : flaggedSessions.entrySet()) {
+            for (AnswerAnomalyDetector.Kind kind : AnswerAnomalyDetector.Kind.values()) {
+                if ((entry.getValue() & (1 << kind.ordinal())) != 0) {
+                    flagsByKind[kind.ordinal()]++;
+                }
+            }
+            if (cheaters.contains(entry.getKey())) {
+                cheatersFlagged++;
+            }
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append("ANTI-CHEAT:\n");
+        report.append(String.format("Events: %d submitted, %d analyzed, %d dropped%s%n", detector.getSubmittedEvents(),
+                detector.getAnalyzedEvents(), detector.getDroppedEvents(), caughtUp ? "" : " (still catching up)"));
+        for (AnswerAnomalyDetector.Kind kind : AnswerAnomalyDetector.Kind.values()) {
+            report.append(String.format("- %s: %d sessions%n", kind, flagsByKind[kind.ordinal()]));
+        }
+        report.append(String.format("Cheaters flagged: %d of %d; honest sessions flagged: %d%n",
+                cheatersFlagged, cheaters.size(), flaggedSessions.size() - cheatersFlagged));
+        report.append("=".repeat(60)).append("\n");
+        return report.toString();
+    }
+
+    private static long[] merge(List<WorkerStats> results, boolean quizLatency, int total) {
+        long[] merged = new long[total];
+        int offset = 0;
+        for (WorkerStats stats : results) {
+            long[] source = quizLatency ? stats.quizLatencyNanos : stats.sessionLatencyNanos;
+            System.arraycopy(source, 0, merged, offset, stats.sessions);
+            offset += stats.sessions;
+        }
+        Arrays.sort(merged);
+        return merged;
+    }
+
+    private static String percentileLine(String label, long[] sorted) {
+        return String.format("%-14s p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n", label,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                percentile(sorted, 99.9), percentile(sorted, 100));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0.0;
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1000.0;
+    }
+
+    private static Map<String, long[]> gcSnapshot() {
+        Map<String, long[]> snapshot = new HashMap<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            snapshot.put(gc.getName(), new long[]{gc.getCollectionCount(), gc.getCollectionTime()});
+        }
+        return snapshot;
+    }
+
+    // Standard normal sample (Box-Muller); SplittableRandom has no nextGaussian before Java 17
+    private static double gaussian(SplittableRandom random) {
+        double u1 = 1.0 - random.nextDouble();
+        double u2 = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2 * Math.PI * u2);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
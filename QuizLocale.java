@@ -0,0 +1,133 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * QuizLocale class - a language tag that questions can be translated into
+ * Each distinct tag gets a small ID (at most MAX_LOCALES per JVM) so a
+ * question can record its translations in a single bitmask. A locale also
+ * knows its fallback chain, from most to least specific: "pt-BR" falls back
+ * to "pt" and then to the question's original text. Instances are interned;
+ * compare them with ==.
+ * The registry is JVM-wide: every QuizManager, and every tenant in a
+ * TenantRegistry, draws from the same MAX_LOCALES IDs, and an ID is never
+ * freed. Tenants using the same tag share its ID, but all of them together
+ * can use at most MAX_LOCALES distinct tags.
+ */
+public final class QuizLocale {
+    // Translations are tracked in a long bitmask, one bit per locale
+    public static final int MAX_LOCALES = 64;
+
+    private static final Map<String, QuizLocale> BY_TAG = new HashMap<>();
+    private static final List<QuizLocale> BY_ID = new ArrayList<>();
+
+    private final String tag;
+    private final int id;
+    // IDs to try when resolving text, this locale first
+    private final int[] fallbackIds;
+
+    private QuizLocale(String tag, int id, QuizLocale parent) {
+        this.tag = tag;
+        this.id = id;
+        if (parent == null) {
+            this.fallbackIds = new int[]{id};
+        } else {
+            this.fallbackIds = new int[parent.fallbackIds.length + 1];
+            this.fallbackIds[0] = id;
+            System.arraycopy(parent.fallbackIds, 0, this.fallbackIds, 1, parent.fallbackIds.length);
+        }
+    }
+
+    /**
+     * Get the locale for a language tag such as "fr", "pt-BR" or "zh_Hant_TW"
+     * @throws IllegalArgumentException if the tag is blank or all locale IDs are taken
+     */
+    public static synchronized QuizLocale of(String tag) {
+        String normalized = normalize(tag);
+        QuizLocale locale = BY_TAG.get(normalized);
+        if (locale != null) {
+            return locale;
+        }
+        int cut = normalized.lastIndexOf('-');
+        QuizLocale parent = cut < 0 ? null : of(normalized.substring(0, cut));
+        if (BY_ID.size() == MAX_LOCALES) {
+            throw new IllegalArgumentException("Too many locales (at most " + MAX_LOCALES + "): " + tag);
+        }
+        locale = new QuizLocale(normalized, BY_ID.size(), parent);
+        BY_TAG.put(normalized, locale);
+        BY_ID.add(locale);
+        return locale;
+    }
+
+    /**
+     * Get the locale with the given ID
+     * @throws IllegalArgumentException if no locale has this ID
+     */
+    public static synchronized QuizLocale byId(int id) {
+        if (id < 0 || id >= BY_ID.size()) {
+            throw new IllegalArgumentException("Unknown locale ID: " + id);
+        }
+        return BY_ID.get(id);
+    }
+
+    /**
+     * All locales created so far, in ID order
+     */
+    public static synchronized List<QuizLocale> getKnownLocales() {
+        return Collections.unmodifiableList(new ArrayList<>(BY_ID));
+    }
+
+    // Lower-case language, upper-case two-letter region, subtags joined with '-';
+    // cased with Locale.ROOT so the default locale (e.g. Turkish) can't change a tag
+    private static String normalize(String tag) {
+        if (tag == null || tag.trim().isEmpty()) {
+            throw new IllegalArgumentException("Locale tag cannot be empty");
+        }
+        String[] parts = tag.trim().split("[-_]");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (part.isEmpty()) {
+                throw new IllegalArgumentException("Invalid locale tag: " + tag);
+            }
+            if (i > 0) {
+                sb.append('-');
+            }
+            if (i == 0) {
+                sb.append(part.toLowerCase(Locale.ROOT));
+            } else if (part.length() == 2) {
+                sb.append(part.toUpperCase(Locale.ROOT));
+            } else {
+                sb.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1).toLowerCase(Locale.ROOT));
+            }
+        }
+        return sb.toString();
+    }
+
+    // Getters
+    public String getTag() { return tag; }
+    public int getId() { return id; }
+
+    int[] getFallbackIds() { return fallbackIds; }
+
+    /**
+     * Whether text in the other locale can be shown for this one: it is this
+     * locale or one it falls back to
+     */
+    boolean fallsBackTo(QuizLocale other) {
+        for (int fallbackId : fallbackIds) {
+            if (fallbackId == other.id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return tag;
+    }
+}
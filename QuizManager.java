@@ -2,18 +2,55 @@ import java.util.*;
 
 /**
  * QuizManager class to manage quiz questions and operations
- * Handles question loading, quiz creation, and category management
+ * Handles question loading, quiz creation, and category management.
+ * The bank is published as immutable QuestionBankSnapshots: reads never lock,
+ * and changes are serialized and swapped in atomically.
  */
 public class QuizManager {
-    private List<Question> allQuestions;
-    private Map<String, List<Question>> questionsByCategory;
+    private volatile QuestionBankSnapshot snapshot;
+    private Map<String, RecentQuestionFilter> recentQuestionsByPlayer;
+    private QuestionSearchIndex searchIndex;
+    // Indexes of translated text, built the first time a locale is searched
+    private Map<QuizLocale, QuestionSearchIndex> localeSearchIndexes;
+    private final Object searchLock = new Object();
+    private volatile ScoringEngine scoringEngine;
+    private volatile long maxBankBytes;
     private Random random;
 
+    // How many recently served questions each player's filter remembers
+    private static final int RECENT_QUESTION_CAPACITY = 200;
+    // Random draws per quiz slot before a stratum is treated as exhausted
+    private static final int MAX_DRAWS_PER_SLOT = 16;
+    // Players whose recent questions are remembered; the least recently active are forgotten
+    private static final int MAX_TRACKED_PLAYERS = 10_000;
+    // Default number of ranked search results
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+
     public QuizManager() {
-        this.allQuestions = new ArrayList<>();
-        this.questionsByCategory = new HashMap<>();
+        this(true);
+    }
+
+    /**
+     * Constructor
+     * @param loadDefaults Whether to start with the built-in questions or an empty bank
+     */
+    public QuizManager(boolean loadDefaults) {
+        this.snapshot = QuestionBankSnapshot.empty();
+        this.recentQuestionsByPlayer = Collections.synchronizedMap(
+                new LinkedHashMap<String, RecentQuestionFilter>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, RecentQuestionFilter> eldest) {
+                        return size() > MAX_TRACKED_PLAYERS;
+                    }
+                });
+        this.searchIndex = new QuestionSearchIndex();
+        this.localeSearchIndexes = new HashMap<>();
+        this.scoringEngine = ScoringEngine.DEFAULT;
+        this.maxBankBytes = Long.MAX_VALUE;
         this.random = new Random();
-        loadDefaultQuestions();
+        if (loadDefaults) {
+            loadDefaultQuestions();
+        }
     }
 
     /**
@@ -103,40 +140,241 @@ public class QuizManager {
         addQuestion("What is the result of 2³ × 3²?",
                 Arrays.asList("36", "54", "72", "108"),
                 2, "Mathematics", 15);
-
-        System.out.println("Loaded " + allQuestions.size() + " questions across " + questionsByCategory.size() + " categories.");
     }
 
     /**
      * Add a question to the quiz manager
      */
-    public void addQuestion(String questionText, List<String> options, int correctAnswerIndex, String category, int points) {
-        Question question = new Question(questionText, options, correctAnswerIndex, category, points);
-        if (question.isValid()) {
-            allQuestions.add(question);
-            questionsByCategory.computeIfAbsent(category, k -> new ArrayList<>()).add(question);
+    public synchronized void addQuestion(String questionText, List<String> options, int correctAnswerIndex, String category, int points) {
+        addQuestion(new Question(questionText, options, correctAnswerIndex, category, points));
+    }
+
+    /**
+     * Add a question of any type; the bank stores a frozen copy
+     * @return true if the question was added, false if it is invalid or the bank is full
+     */
+    public synchronized boolean addQuestion(Question template) {
+        return addQuestions(Collections.singletonList(template)) == 1;
+    }
+
+    /**
+     * Add many questions and publish them as one new snapshot
+     * Invalid questions are skipped; adding stops once the bank's memory budget is reached.
+     * @return How many questions were added
+     */
+    public synchronized int addQuestions(List<? extends Question> templates) {
+        QuestionBankSnapshot bank = snapshot;
+        long bytes = bank.getEstimatedBytes();
+        List<Question> added = new ArrayList<>(templates.size());
+        for (Question template : templates) {
+            if (!template.isValid()) {
+                continue;
+            }
+            bytes += QuestionBankSnapshot.estimateFootprint(template);
+            if (bytes > maxBankBytes) {
+                break;
+            }
+            Question question = template.copy();
+            question.setId(bank.size() + added.size());
+            question.setPublishedVersion(bank.getVersion() + 1);
+            added.add(question.freeze());
         }
+        if (added.isEmpty()) {
+            return 0;
+        }
+        snapshot = bank.withAddedAll(added);
+        synchronized (searchLock) {
+            // Skip questions a search already indexed from the new snapshot
+            for (Question question : added) {
+                if (!searchIndex.contains(question.getId())) {
+                    searchIndex.addQuestion(question);
+                }
+                for (Map.Entry<QuizLocale, QuestionSearchIndex> entry : localeSearchIndexes.entrySet()) {
+                    if (!entry.getValue().contains(question.getId())) {
+                        entry.getValue().addQuestion(question, entry.getKey());
+                    }
+                }
+            }
+        }
+        return added.size();
+    }
+
+    /**
+     * Replace a question with an edited version
+     * Quizzes already in progress keep grading against the version they were served.
+     * @param edited Question carrying the ID of the question to replace, typically an
+     *               edited copy made with original.copy()
+     * @return true if the question was replaced, false if the ID is unknown, the edit is
+     *         invalid or it would exceed the memory budget
+     */
+    public synchronized boolean updateQuestion(Question edited) {
+        Question current = snapshot.getQuestion(edited.getId());
+        if (current == null || !edited.isValid() || !fitsBudget(current, edited)) {
+            return false;
+        }
+        publishReplacements(Collections.singletonList(edited.copy()), null);
+        return true;
+    }
+
+    /**
+     * Add or replace a translation of a question in the bank
+     * Only the translated strings are stored; the question's answer, points and
+     * category stay shared across all locales. To translate many questions, use
+     * addTranslations, which publishes a single snapshot.
+     * @param localeTag Language tag, e.g. "fr" or "pt-BR"
+     * @param options Translated options in the same order as the originals
+     * @return true if the translation was published, false if the ID is unknown
+     *         or it would exceed the memory budget
+     * @throws IllegalArgumentException if the text is blank or the option count differs
+     */
+    public synchronized boolean addTranslation(int questionId, String localeTag, String questionText, List<String> options) {
+        Question current = snapshot.getQuestion(questionId);
+        if (current == null) {
+            return false;
+        }
+        Question translated = current.copy();
+        translated.addTranslation(localeTag, questionText, options);
+        if (!fitsBudget(current, translated)) {
+            return false;
+        }
+        publishReplacements(Collections.singletonList(translated), QuizLocale.of(localeTag));
+        return true;
+    }
+
+    /**
+     * Add or replace translations of many questions into one locale and publish
+     * them as one new snapshot
+     * Each translation is a question carrying the ID of the bank question it
+     * translates; only its text and options are used. Unknown IDs are skipped;
+     * adding stops once the bank's memory budget is reached.
+     * @param localeTag Language tag, e.g. "fr" or "pt-BR"
+     * @return How many translations were published
+     * @throws IllegalArgumentException if a text is blank or an option count differs;
+     *         nothing is published then
+     */
+    public synchronized int addTranslations(String localeTag, List<? extends Question> translations) {
+        QuizLocale locale = QuizLocale.of(localeTag);
+        QuestionBankSnapshot bank = snapshot;
+        long bytes = bank.getEstimatedBytes();
+        // One edited copy per question, even if it is translated twice
+        Map<Integer, Question> translated = new LinkedHashMap<>();
+        int published = 0;
+        for (Question translation : translations) {
+            Question current = translated.get(translation.getId());
+            if (current == null) {
+                current = bank.getQuestion(translation.getId());
+                if (current == null) {
+                    continue;
+                }
+            }
+            Question next = current.copy();
+            next.addTranslation(localeTag, translation.getQuestionText(), translation.getOptions());
+            bytes += QuestionBankSnapshot.estimateFootprint(next) - QuestionBankSnapshot.estimateFootprint(current);
+            if (bytes > maxBankBytes) {
+                break;
+            }
+            translated.put(next.getId(), next);
+            published++;
+        }
+        if (!translated.isEmpty()) {
+            publishReplacements(new ArrayList<>(translated.values()), locale);
+        }
+        return published;
+    }
+
+    private boolean fitsBudget(Question current, Question replacement) {
+        return snapshot.getEstimatedBytes() - QuestionBankSnapshot.estimateFootprint(current) +
+                QuestionBankSnapshot.estimateFootprint(replacement) <= maxBankBytes;
+    }
+
+    // Publish edited copies as one snapshot and re-index just them; a non-null
+    // locale means only that locale's translation changed
+    private void publishReplacements(List<Question> replacements, QuizLocale translatedLocale) {
+        long version = snapshot.getVersion() + 1;
+        for (Question replacement : replacements) {
+            replacement.setPublishedVersion(version);
+            replacement.freeze();
+        }
+        snapshot = snapshot.withReplacedAll(replacements);
+        synchronized (searchLock) {
+            // A locale index built from the new snapshot already has these versions,
+            // and replacing them again is harmless
+            for (Question replacement : replacements) {
+                if (translatedLocale == null) {
+                    searchIndex.updateQuestion(replacement);
+                }
+                for (Map.Entry<QuizLocale, QuestionSearchIndex> entry : localeSearchIndexes.entrySet()) {
+                    if (translatedLocale == null || entry.getKey().fallsBackTo(translatedLocale)) {
+                        entry.getValue().updateQuestion(replacement, entry.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the current bank snapshot
+     * Pin it for the duration of a quiz session to keep the questions stable.
+     */
+    public QuestionBankSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Map a point value to its difficulty level
+     * @return "easy", "medium", "hard" or null if out of range
+     */
+    public static String getDifficulty(int points) {
+        if (points >= 1 && points <= 5) return "easy";
+        if (points >= 6 && points <= 10) return "medium";
+        if (points >= 11 && points <= 20) return "hard";
+        return null;
     }
 
     /**
      * Get all available categories
+     * @return Read-only view of the current snapshot's categories
      */
     public Set<String> getAvailableCategories() {
-        return new HashSet<>(questionsByCategory.keySet());
+        return snapshot.getCategories();
+    }
+
+    /**
+     * Get question counts and points per category
+     * @return Read-only list, cached until the bank changes
+     */
+    public List<QuestionBankSnapshot.CategorySummary> getCategorySummaries() {
+        return snapshot.getCategorySummaries();
+    }
+
+    /**
+     * Get a question by its ID
+     * @return The question, or null if no question has that ID
+     */
+    public Question getQuestionById(int id) {
+        return snapshot.getQuestion(id);
     }
 
     /**
      * Get questions by category
+     * @return Read-only list from the current snapshot, empty if the category is unknown
      */
     public List<Question> getQuestionsByCategory(String category) {
-        return new ArrayList<>(questionsByCategory.getOrDefault(category, new ArrayList<>()));
+        return snapshot.getQuestionsByCategory(category);
     }
 
     /**
      * Create a quiz with specified number of questions from a category
      */
     public List<Question> createQuiz(String category, int numberOfQuestions) {
-        List<Question> categoryQuestions = getQuestionsByCategory(category);
+        return createQuiz(snapshot, category, numberOfQuestions);
+    }
+
+    /**
+     * Create a quiz from a pinned snapshot
+     */
+    public List<Question> createQuiz(QuestionBankSnapshot bank, String category, int numberOfQuestions) {
+        List<Question> categoryQuestions = new ArrayList<>(bank.getQuestionsByCategory(category));
         
         if (categoryQuestions.isEmpty()) {
             return new ArrayList<>();
@@ -153,94 +391,261 @@ public class QuizManager {
      * Create a mixed quiz from all categories
      */
     public List<Question> createMixedQuiz(int numberOfQuestions) {
-        List<Question> shuffledQuestions = new ArrayList<>(allQuestions);
+        return createMixedQuiz(snapshot, numberOfQuestions);
+    }
+
+    /**
+     * Create a mixed quiz from a pinned snapshot
+     */
+    public List<Question> createMixedQuiz(QuestionBankSnapshot bank, int numberOfQuestions) {
+        List<Question> shuffledQuestions = new ArrayList<>(bank.getQuestions());
         Collections.shuffle(shuffledQuestions, random);
         
         int questionsToSelect = Math.min(numberOfQuestions, shuffledQuestions.size());
         return new ArrayList<>(shuffledQuestions.subList(0, questionsToSelect));
     }
 
+    /**
+     * Create a quiz following a blueprint of weighted categories and difficulties.
+     * Each stratum gets its proportional share of slots up front and the leftover
+     * slots are drawn with an alias sampler, so the cost is O(quiz size) rather than
+     * O(bank size). Questions the player has seen recently are skipped while there
+     * are fresh ones to draw from.
+     */
+    public List<Question> createBlueprintQuiz(String playerName, QuizBlueprint blueprint, int numberOfQuestions) {
+        return createBlueprintQuiz(snapshot, playerName, blueprint, numberOfQuestions);
+    }
+
+    /**
+     * Create a blueprint quiz from a pinned snapshot
+     */
+    public List<Question> createBlueprintQuiz(QuestionBankSnapshot bank, String playerName,
+                                              QuizBlueprint blueprint, int numberOfQuestions) {
+        List<Question> quiz = new ArrayList<>();
+        if (blueprint == null || blueprint.isEmpty() || numberOfQuestions <= 0) {
+            return quiz;
+        }
+
+        // Resolve each stratum to its pool, dropping the ones with no questions
+        List<List<Question>> pools = new ArrayList<>();
+        List<Double> poolWeights = new ArrayList<>();
+        double totalWeight = 0.0;
+        for (QuizBlueprint.Stratum stratum : blueprint.getStrata()) {
+            List<Question> pool = stratum.isByCategory() ?
+                                  bank.getQuestionsByCategory(stratum.getKey()) :
+                                  bank.getQuestionsByDifficulty(stratum.getKey());
+            if (!pool.isEmpty()) {
+                pools.add(pool);
+                poolWeights.add(stratum.getWeight());
+                totalWeight += stratum.getWeight();
+            }
+        }
+        if (pools.isEmpty()) {
+            return quiz;
+        }
+
+        double[] weights = new double[pools.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = poolWeights.get(i);
+        }
+        AliasSampler sampler = new AliasSampler(weights);
+        RecentQuestionFilter recent = recentQuestionsByPlayer.computeIfAbsent(
+                playerName, k -> new RecentQuestionFilter(RECENT_QUESTION_CAPACITY));
+        Set<Integer> selectedIds = new HashSet<>();
+
+        // Guaranteed share per stratum
+        for (int i = 0; i < pools.size() && quiz.size() < numberOfQuestions; i++) {
+            int quota = (int) Math.floor(weights[i] / totalWeight * numberOfQuestions);
+            for (int j = 0; j < quota && quiz.size() < numberOfQuestions; j++) {
+                Question question = drawFromPool(pools.get(i), recent, selectedIds);
+                if (question == null) break;
+                quiz.add(question);
+            }
+        }
+
+        // Remaining slots go to weighted draws across all strata; a stratum that
+        // comes back empty has no unused questions left, so its draws move on
+        // to the next stratum that still has some
+        boolean[] exhausted = new boolean[pools.size()];
+        int exhaustedCount = 0;
+        while (quiz.size() < numberOfQuestions && exhaustedCount < pools.size()) {
+            int i = sampler.sample(random);
+            while (exhausted[i]) {
+                i = (i + 1) % pools.size();
+            }
+            Question question = drawFromPool(pools.get(i), recent, selectedIds);
+            if (question == null) {
+                exhausted[i] = true;
+                exhaustedCount++;
+            } else {
+                quiz.add(question);
+            }
+        }
+
+        Collections.shuffle(quiz, random);
+        for (Question question : quiz) {
+            recent.add(question.getId());
+        }
+        return quiz;
+    }
+
+    // Pick a random unused question from a pool, preferring ones the player has not seen
+    // Returns null only when every question in the pool is already in the quiz
+    private Question drawFromPool(List<Question> pool, RecentQuestionFilter recent, Set<Integer> selectedIds) {
+        for (int attempt = 0; attempt < MAX_DRAWS_PER_SLOT; attempt++) {
+            Question candidate = pool.get(random.nextInt(pool.size()));
+            if (!selectedIds.contains(candidate.getId()) && !recent.mightContain(candidate.getId())) {
+                selectedIds.add(candidate.getId());
+                return candidate;
+            }
+        }
+        // Random draws keep missing, so the pool is nearly used up: scan it from
+        // a random start for a fresh question, else any unused one
+        Question fallback = null;
+        int start = random.nextInt(pool.size());
+        for (int offset = 0; offset < pool.size(); offset++) {
+            Question candidate = pool.get((start + offset) % pool.size());
+            if (selectedIds.contains(candidate.getId())) {
+                continue;
+            }
+            if (!recent.mightContain(candidate.getId())) {
+                fallback = candidate;
+                break;
+            }
+            if (fallback == null) {
+                fallback = candidate;
+            }
+        }
+        if (fallback != null) {
+            selectedIds.add(fallback.getId());
+        }
+        return fallback;
+    }
+
+    /**
+     * Forget which questions a player has recently been served
+     */
+    public void clearRecentQuestions(String playerName) {
+        recentQuestionsByPlayer.remove(playerName);
+    }
+
     /**
      * Get quiz statistics
      */
     public String getQuizStatistics() {
-        StringBuilder stats = new StringBuilder();
-        stats.append("=== QUIZ STATISTICS ===\n");
-        stats.append("Total Questions: ").append(allQuestions.size()).append("\n");
-        stats.append("Categories: ").append(questionsByCategory.size()).append("\n\n");
-        
-        stats.append("Questions by Category:\n");
-        for (Map.Entry<String, List<Question>> entry : questionsByCategory.entrySet()) {
-            stats.append("- ").append(entry.getKey()).append(": ").append(entry.getValue().size()).append(" questions\n");
-        }
-        
-        return stats.toString();
+        return snapshot.getStatisticsText();
     }
 
     /**
      * Search questions by keyword
+     * Matches question text, options and category, best matches first
      */
     public List<Question> searchQuestions(String keyword) {
+        return searchQuestions(keyword, DEFAULT_SEARCH_LIMIT);
+    }
+
+    /**
+     * Search questions with BM25 ranking and typo-tolerant matching
+     * @param limit Maximum number of questions to return
+     */
+    public List<Question> searchQuestions(String keyword, int limit) {
+        return searchQuestions(keyword, limit, null);
+    }
+
+    /**
+     * Search the text players see in a locale
+     * Questions without a translation are matched on their fallback text.
+     */
+    public List<Question> searchQuestions(String keyword, QuizLocale locale) {
+        return searchQuestions(keyword, DEFAULT_SEARCH_LIMIT, locale);
+    }
+
+    /**
+     * Search the text players see in a locale
+     * @param locale Locale to search in, or null for the original text
+     * @param limit Maximum number of questions to return
+     */
+    public List<Question> searchQuestions(String keyword, int limit, QuizLocale locale) {
+        List<QuestionSearchIndex.Hit> hits;
+        QuestionBankSnapshot bank;
+        // The index reuses scratch buffers, so searches take turns
+        synchronized (searchLock) {
+            bank = snapshot;
+            QuestionSearchIndex index = searchIndex;
+            if (locale != null) {
+                index = localeSearchIndexes.computeIfAbsent(locale, l -> buildSearchIndex(bank, l));
+            }
+            hits = index.search(keyword, limit);
+        }
+
         List<Question> results = new ArrayList<>();
-        String lowerKeyword = keyword.toLowerCase();
-        
-        for (Question question : allQuestions) {
-            if (question.getQuestionText().toLowerCase().contains(lowerKeyword) ||
-                question.getCategory().toLowerCase().contains(lowerKeyword)) {
+        for (QuestionSearchIndex.Hit hit : hits) {
+            Question question = bank.getQuestion(hit.getQuestionId());
+            if (question != null) {
                 results.add(question);
             }
         }
-        
         return results;
     }
 
+    private static QuestionSearchIndex buildSearchIndex(QuestionBankSnapshot bank, QuizLocale locale) {
+        QuestionSearchIndex index = new QuestionSearchIndex();
+        for (Question question : bank.getQuestions()) {
+            index.addQuestion(question, locale);
+        }
+        return index;
+    }
+
     /**
      * Get difficulty-based questions (based on points)
+     * @return Read-only list from the current snapshot
      */
     public List<Question> getQuestionsByDifficulty(String difficulty) {
-        List<Question> results = new ArrayList<>();
-        int minPoints, maxPoints;
-        
-        switch (difficulty.toLowerCase()) {
-            case "easy":
-                minPoints = 1; maxPoints = 5;
-                break;
-            case "medium":
-                minPoints = 6; maxPoints = 10;
-                break;
-            case "hard":
-                minPoints = 11; maxPoints = 20;
-                break;
-            default:
-                return results;
-        }
-        
-        for (Question question : allQuestions) {
-            if (question.getPoints() >= minPoints && question.getPoints() <= maxPoints) {
-                results.add(question);
-            }
-        }
-        
-        return results;
+        return snapshot.getQuestionsByDifficulty(difficulty.toLowerCase());
     }
 
     /**
      * Validate quiz configuration
      */
     public boolean isValidQuizConfig(String category, int numberOfQuestions) {
+        QuestionBankSnapshot bank = snapshot;
         if (category.equals("Mixed")) {
-            return numberOfQuestions > 0 && numberOfQuestions <= allQuestions.size();
+            return numberOfQuestions > 0 && numberOfQuestions <= bank.size();
         }
         
-        List<Question> categoryQuestions = questionsByCategory.get(category);
-        return categoryQuestions != null && numberOfQuestions > 0 && numberOfQuestions <= categoryQuestions.size();
+        List<Question> categoryQuestions = bank.getQuestionsByCategory(category);
+        return !categoryQuestions.isEmpty() && numberOfQuestions > 0 && numberOfQuestions <= categoryQuestions.size();
+    }
+
+    /**
+     * Score and grade new quizzes from this bank with a different rule set
+     * The rules are compiled once here; quizzes already running keep their engine.
+     */
+    public void setScoringRules(ScoringRules rules) {
+        this.scoringEngine = ScoringEngine.compile(rules);
+    }
+
+    /**
+     * Cap the bank's estimated memory use; additions that would exceed it are refused
+     * Questions already in the bank are kept even if they exceed a lowered cap.
+     */
+    public void setMaxBankBytes(long maxBankBytes) {
+        if (maxBankBytes <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        this.maxBankBytes = maxBankBytes;
     }
 
     // Getters
-    public int getTotalQuestions() { return allQuestions.size(); }
-    public int getCategoryCount() { return questionsByCategory.size(); }
+    public ScoringEngine getScoringEngine() { return scoringEngine; }
+    public long getMaxBankBytes() { return maxBankBytes; }
+    public long getEstimatedBankBytes() { return snapshot.getEstimatedBytes(); }
+    public int getTotalQuestions() { return snapshot.size(); }
+    public int getCategoryCount() { return snapshot.getCategoryCount(); }
+    public long getBankVersion() { return snapshot.getVersion(); }
     
+    // Read-only list from the current snapshot
     public List<Question> getAllQuestions() { 
-        return new ArrayList<>(allQuestions); 
+        return snapshot.getQuestions(); 
     }
 }
@@ -0,0 +1,54 @@
+import java.util.List;
+
+/**
+ * QuizReadBenchmark - time and allocation per call of QuizManager's read methods
+ * Allocation is measured with the per-thread allocation counter, so run it
+ * on a JVM that supports it (HotSpot does by default).
+ *
+ * Usage: java QuizReadBenchmark [calls=2000000] [rounds=3]
+ */
+public class QuizReadBenchmark {
+
+    private interface Read {
+        long call(QuizManager quizManager, int i);
+    }
+
+    public static void main(String[] args) {
+        BenchmarkSupport.Options options = BenchmarkSupport.parseOptions(args, "calls", "rounds");
+        int calls = options.getInt("calls", 2_000_000);
+        int rounds = options.getInt("rounds", 3);
+
+        QuizManager quizManager = new QuizManager();
+        String[] categories = quizManager.getAvailableCategories().toArray(new String[0]);
+
+        for (int round = 1; round <= rounds; round++) {
+            System.out.println("Round " + round + " (" + calls + " calls each):");
+            measure("getAvailableCategories", quizManager, calls,
+                    (m, i) -> m.getAvailableCategories().size());
+            measure("getQuestionsByCategory", quizManager, calls,
+                    (m, i) -> m.getQuestionsByCategory(categories[i % categories.length]).size());
+            measure("getQuestionsByDifficulty", quizManager, calls,
+                    (m, i) -> m.getQuestionsByDifficulty("medium").size());
+            measure("getCategorySummaries", quizManager, calls, (m, i) -> {
+                List<QuestionBankSnapshot.CategorySummary> summaries = m.getCategorySummaries();
+                return summaries.get(i % summaries.size()).getQuestionCount();
+            });
+            measure("getQuizStatistics", quizManager, calls,
+                    (m, i) -> m.getQuizStatistics().length());
+        }
+    }
+
+    private static void measure(String name, QuizManager quizManager, int calls, Read read) {
+        long total = 0;
+        long allocatedBefore = BenchmarkSupport.threadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            total += read.call(quizManager, i);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = BenchmarkSupport.threadAllocatedBytes() - allocatedBefore;
+        BenchmarkSupport.consume(total);
+        System.out.println(String.format("  %-26s %8.1f ns/call %10.2f bytes/call",
+                name, (double) elapsed / calls, allocatedBefore < 0 ? -1.0 : (double) allocated / calls));
+    }
+}
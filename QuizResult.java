@@ -1,3 +1,4 @@
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
@@ -7,7 +8,9 @@ import java.util.ArrayList;
  * QuizResult class to store quiz attempt results
  * Tracks score, answers, and performance metrics
  */
-public class QuizResult {
+public class QuizResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String playerName;
     private int totalQuestions;
     private int correctAnswers;
@@ -16,12 +19,29 @@ public class QuizResult {
     private LocalDateTime completionTime;
     private long timeTakenSeconds;
     private String category;
+    private long bankVersion;
+    private ScoringEngine scoring;
     private List<QuestionResult> questionResults;
 
     // Constructor
     public QuizResult(String playerName, String category) {
+        this(playerName, category, -1);
+    }
+
+    // Constructor recording the question bank version the quiz was served from
+    public QuizResult(String playerName, String category, long bankVersion) {
+        this(playerName, category, bankVersion, ScoringEngine.DEFAULT);
+    }
+
+    // Constructor scoring and grading with a specific rule set
+    public QuizResult(String playerName, String category, long bankVersion, ScoringEngine scoring) {
+        if (scoring == null) {
+            throw new IllegalArgumentException("Scoring engine must not be null");
+        }
         this.playerName = playerName;
         this.category = category;
+        this.bankVersion = bankVersion;
+        this.scoring = scoring;
         this.totalQuestions = 0;
         this.correctAnswers = 0;
         this.totalScore = 0;
@@ -32,7 +52,12 @@ public class QuizResult {
     }
 
     // Inner class to store individual question results
-    public static class QuestionResult {
+    public static class QuestionResult implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private int questionId;
+        private long answer;
+        private long answerMillis;
         private String questionText;
         private String selectedAnswer;
         private String correctAnswer;
@@ -42,6 +67,19 @@ public class QuizResult {
 
         public QuestionResult(String questionText, String selectedAnswer, String correctAnswer, 
                             boolean isCorrect, int pointsEarned, int maxPoints) {
+            this(-1, -1, 0, questionText, selectedAnswer, correctAnswer, isCorrect, pointsEarned, maxPoints);
+        }
+
+        /**
+         * @param answer The answer in the question type's encoding (see Question.parseAnswer);
+         *               for single-choice questions, the selected option index
+         */
+        public QuestionResult(int questionId, long answer, long answerMillis,
+                            String questionText, String selectedAnswer, String correctAnswer,
+                            boolean isCorrect, int pointsEarned, int maxPoints) {
+            this.questionId = questionId;
+            this.answer = answer;
+            this.answerMillis = answerMillis;
             this.questionText = questionText;
             this.selectedAnswer = selectedAnswer;
             this.correctAnswer = correctAnswer;
@@ -51,6 +89,11 @@ public class QuizResult {
         }
 
         // Getters
+        public int getQuestionId() { return questionId; }
+        public long getAnswer() { return answer; }
+        // Only meaningful for single-choice questions
+        public int getSelectedIndex() { return (int) answer; }
+        public long getAnswerMillis() { return answerMillis; }
         public String getQuestionText() { return questionText; }
         public String getSelectedAnswer() { return selectedAnswer; }
         public String getCorrectAnswer() { return correctAnswer; }
@@ -61,25 +104,56 @@ public class QuizResult {
 
     // Add a question result
     public void addQuestionResult(Question question, int selectedAnswerIndex, String selectedAnswerText) {
-        boolean isCorrect = question.isCorrect(selectedAnswerIndex);
-        int pointsEarned = isCorrect ? question.getPoints() : 0;
-        
+        addQuestionResult(question, selectedAnswerIndex, selectedAnswerText, 0);
+    }
+
+    /**
+     * Add a question result with the time the player took to answer
+     * @throws IllegalArgumentException if the question is not single-choice; other
+     *         types' answers are not option indexes, so record them with addAnswer
+     */
+    public void addQuestionResult(Question question, int selectedAnswerIndex, String selectedAnswerText, long answerMillis) {
+        if (question.getType() != Question.Type.SINGLE_CHOICE) {
+            throw new IllegalArgumentException("Use addAnswer for " + question.getType() + " questions");
+        }
+        recordAnswer(question, selectedAnswerIndex, selectedAnswerText, answerMillis);
+    }
+
+    /**
+     * Add an answer to a question of any type
+     * @param answer The answer in the question type's encoding (see Question.parseAnswer)
+     */
+    public void addAnswer(Question question, long answer, long answerMillis) {
+        recordAnswer(question, answer, question.formatAnswer(answer), answerMillis);
+    }
+
+    private void recordAnswer(Question question, long answer, String answerText, long answerMillis) {
         QuestionResult result = new QuestionResult(
+            question.getId(),
+            answer,
+            answerMillis,
             question.getQuestionText(),
-            selectedAnswerText,
+            answerText,
             question.getCorrectAnswerText(),
-            isCorrect,
-            pointsEarned,
+            question.isCorrectAnswer(answer),
+            question.score(scoring, answer, answerMillis),
             question.getPoints()
         );
         
+        restoreQuestionResult(result);
+    }
+
+    /**
+     * Append an already graded question result, e.g. one read back from storage
+     */
+    public void restoreQuestionResult(QuestionResult result) {
         questionResults.add(result);
         totalQuestions++;
-        maxPossibleScore += question.getPoints();
+        maxPossibleScore += result.getMaxPoints();
+        totalScore += result.getPointsEarned();
         
-        if (isCorrect) {
+        if (result.isCorrect()) {
             correctAnswers++;
-            totalScore += question.getPoints();
         }
     }
 
@@ -91,24 +165,12 @@ public class QuizResult {
 
     // Get grade based on percentage
     public String getGrade() {
-        double percentage = getPercentageScore();
-        if (percentage >= 90) return "A+";
-        else if (percentage >= 80) return "A";
-        else if (percentage >= 70) return "B";
-        else if (percentage >= 60) return "C";
-        else if (percentage >= 50) return "D";
-        else return "F";
+        return scoring.getGrade(getPercentageScore());
     }
 
     // Get performance message
     public String getPerformanceMessage() {
-        double percentage = getPercentageScore();
-        if (percentage >= 90) return "Excellent! Outstanding performance!";
-        else if (percentage >= 80) return "Great job! Very good performance!";
-        else if (percentage >= 70) return "Good work! Above average performance!";
-        else if (percentage >= 60) return "Fair performance. Keep practicing!";
-        else if (percentage >= 50) return "Below average. More study needed.";
-        else return "Poor performance. Please review the material.";
+        return scoring.getPerformanceMessage(getPercentageScore());
     }
 
     // Generate detailed report
@@ -139,17 +201,21 @@ public class QuizResult {
         for (int i = 0; i < questionResults.size(); i++) {
             QuestionResult qr = questionResults.get(i);
             report.append("Q").append(i + 1).append(": ");
-            report.append(qr.isCorrect() ? "✓ CORRECT" : "✗ WRONG");
+            report.append(qr.isCorrect() ? "✓ CORRECT" : qr.getPointsEarned() > 0 ? "~ PARTIAL" : "✗ WRONG");
             report.append(" (").append(qr.getPointsEarned()).append("/").append(qr.getMaxPoints()).append(" points)\n");
             
-            // Truncate long questions for summary
+            // Truncate long questions for summary; results decoded without a bank have no texts
             String questionPreview = qr.getQuestionText();
-            if (questionPreview.length() > 50) {
+            if (questionPreview == null) {
+                questionPreview = "Question #" + qr.getQuestionId();
+            } else if (questionPreview.length() > 50) {
                 questionPreview = questionPreview.substring(0, 47) + "...";
             }
             report.append("    Question: ").append(questionPreview).append("\n");
-            report.append("    Your Answer: ").append(qr.getSelectedAnswer()).append("\n");
-            if (!qr.isCorrect()) {
+            if (qr.getSelectedAnswer() != null) {
+                report.append("    Your Answer: ").append(qr.getSelectedAnswer()).append("\n");
+            }
+            if (!qr.isCorrect() && qr.getCorrectAnswer() != null) {
                 report.append("    Correct Answer: ").append(qr.getCorrectAnswer()).append("\n");
             }
             report.append("\n");
@@ -175,7 +241,11 @@ public class QuizResult {
     public LocalDateTime getCompletionTime() { return completionTime; }
     public long getTimeTakenSeconds() { return timeTakenSeconds; }
     public String getCategory() { return category; }
+    public long getBankVersion() { return bankVersion; }
+    public ScoringEngine getScoringEngine() { return scoring; }
     public List<QuestionResult> getQuestionResults() { return new ArrayList<>(questionResults); }
+    public int getQuestionResultCount() { return questionResults.size(); }
+    public QuestionResult getQuestionResult(int index) { return questionResults.get(index); }
 
     // Setters
     public void setTimeTakenSeconds(long timeTakenSeconds) { this.timeTakenSeconds = timeTakenSeconds; }
@@ -0,0 +1,364 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * QuizResultCodec class - compact binary format for quiz results
+ * Used for both storage and the network. Each record is length-prefixed so
+ * records can be written back to back. Question and answer texts are not
+ * stored; only IDs are, and decoding looks the texts up in a question bank
+ * snapshot. All integers are varints (zig-zag for values that may be negative).
+ *
+ * Record layout:
+ *   length, format version, bank version, completion time (epoch ms, UTC),
+ *   time taken (s), player name, category, answer count, then per answer:
+ *   question ID, answer (the question type's long encoding), points earned
+ *   and correct flag, max points, answer time (ms)
+ * Records in any other format version are rejected.
+ * The scoring rules are not stored: points are stored as earned, but grades
+ * and performance messages come from the ScoringEngine passed to decode, so
+ * pass the engine the result was graded with (ScoringEngine.DEFAULT if none).
+ * Texts are only restored for questions unchanged since the record's bank
+ * version; a question edited after the quiz may have reordered options, so its
+ * answers are left blank rather than shown against the wrong version.
+ */
+public final class QuizResultCodec {
+    public static final int FORMAT_VERSION = 2;
+
+    // Worst case bytes for varint-encoded values
+    private static final int MAX_VARINT_BYTES = 5;
+    private static final int MAX_VARLONG_BYTES = 10;
+
+    private QuizResultCodec() {
+    }
+
+    /**
+     * Upper bound on the encoded size of a result, for sizing buffers
+     */
+    public static int maxEncodedSize(QuizResult result) {
+        int strings = maxStringSize(result.getPlayerName()) + maxStringSize(result.getCategory());
+        int header = MAX_VARINT_BYTES * 3 + MAX_VARLONG_BYTES * 3;
+        int answers = result.getQuestionResultCount() * (MAX_VARINT_BYTES * 3 + MAX_VARLONG_BYTES * 2);
+        return header + strings + answers;
+    }
+
+    /**
+     * Write one result record into an array
+     * @return The offset just past the record
+     * @throws ArrayIndexOutOfBoundsException if the array is too small; see maxEncodedSize
+     */
+    public static int encode(QuizResult result, byte[] out, int offset) {
+        // Leave room for the largest length prefix; the body is shifted down afterwards
+        int bodyStart = offset + MAX_VARINT_BYTES;
+        int pos = bodyStart;
+
+        pos = writeVarint(out, pos, FORMAT_VERSION);
+        pos = writeVarlong(out, pos, zigZag(result.getBankVersion()));
+        LocalDateTime completion = result.getCompletionTime();
+        pos = writeVarlong(out, pos, zigZag(completion.toEpochSecond(ZoneOffset.UTC) * 1000 + completion.getNano() / 1_000_000));
+        pos = writeVarlong(out, pos, zigZag(result.getTimeTakenSeconds()));
+        pos = writeString(out, pos, result.getPlayerName());
+        pos = writeString(out, pos, result.getCategory());
+
+        int count = result.getQuestionResultCount();
+        pos = writeVarint(out, pos, count);
+        for (int i = 0; i < count; i++) {
+            QuizResult.QuestionResult qr = result.getQuestionResult(i);
+            pos = writeVarint(out, pos, qr.getQuestionId() + 1);
+            pos = writeVarlong(out, pos, zigZag(qr.getAnswer()));
+            pos = writeVarint(out, pos, (zigZag(qr.getPointsEarned()) << 1) | (qr.isCorrect() ? 1 : 0));
+            pos = writeVarint(out, pos, qr.getMaxPoints());
+            pos = writeVarlong(out, pos, qr.getAnswerMillis());
+        }
+
+        int bodyLength = pos - bodyStart;
+        int bodyOffset = writeVarint(out, offset, bodyLength);
+        System.arraycopy(out, bodyStart, out, bodyOffset, bodyLength);
+        return bodyOffset + bodyLength;
+    }
+
+    /**
+     * Write one result record at the buffer's position
+     * @throws java.nio.BufferOverflowException if the buffer is too small; see maxEncodedSize
+     */
+    public static void encode(QuizResult result, ByteBuffer out) {
+        int maxSize = maxEncodedSize(result);
+        if (out.hasArray() && out.remaining() >= maxSize) {
+            int start = out.arrayOffset() + out.position();
+            int end = encode(result, out.array(), start);
+            out.position(out.position() + (end - start));
+        } else {
+            byte[] scratch = new byte[maxSize];
+            out.put(scratch, 0, encode(result, scratch, 0));
+        }
+    }
+
+    /**
+     * Encode a single result into a right-sized byte array
+     */
+    public static byte[] encode(QuizResult result) {
+        byte[] scratch = new byte[maxEncodedSize(result)];
+        int length = encode(result, scratch, 0);
+        byte[] bytes = new byte[length];
+        System.arraycopy(scratch, 0, bytes, 0, length);
+        return bytes;
+    }
+
+    /**
+     * Read one result record from the buffer's position
+     * @param bank Snapshot used to restore question and answer texts, or null to
+     *             skip the texts (they are left null, and the detailed report shows
+     *             question IDs instead) when only IDs and scores are needed.
+     *             Questions edited since the quiz's bank version get a placeholder text.
+     * @throws IllegalArgumentException if the record is malformed or truncated
+     */
+    public static QuizResult decode(ByteBuffer in, QuestionBankSnapshot bank) {
+        return decode(in, bank, ScoringEngine.DEFAULT);
+    }
+
+    /**
+     * Read one result record, grading it on a specific scale
+     * @param scoring Engine the result was graded with; it decides getGrade and
+     *                getPerformanceMessage of the decoded result
+     */
+    public static QuizResult decode(ByteBuffer in, QuestionBankSnapshot bank, ScoringEngine scoring) {
+        Reader reader;
+        if (in.hasArray()) {
+            reader = new Reader(in.array(), in.arrayOffset() + in.position(), in.arrayOffset() + in.limit());
+        } else {
+            // Copy just this record, not the rest of a possibly huge mapped buffer
+            int size = recordSize(in, in.position());
+            byte[] copy = new byte[size < 0 ? in.remaining() : Math.min(size, in.remaining())];
+            in.duplicate().get(copy);
+            reader = new Reader(copy, 0, copy.length);
+        }
+        int start = reader.pos;
+        QuizResult result = reader.readRecord(bank, scoring);
+        in.position(in.position() + (reader.pos - start));
+        return result;
+    }
+
+    public static QuizResult decode(byte[] bytes, QuestionBankSnapshot bank) {
+        return decode(bytes, 0, bank, ScoringEngine.DEFAULT);
+    }
+
+    public static QuizResult decode(byte[] bytes, QuestionBankSnapshot bank, ScoringEngine scoring) {
+        return decode(bytes, 0, bank, scoring);
+    }
+
+    /**
+     * Read the record starting at an offset in a stream of back-to-back records
+     */
+    public static QuizResult decode(byte[] bytes, int offset, QuestionBankSnapshot bank) {
+        return decode(bytes, offset, bank, ScoringEngine.DEFAULT);
+    }
+
+    public static QuizResult decode(byte[] bytes, int offset, QuestionBankSnapshot bank, ScoringEngine scoring) {
+        return new Reader(bytes, offset, bytes.length).readRecord(bank, scoring);
+    }
+
+    /**
+     * Find where the next record starts without decoding this one
+     * @return The offset just past the record at {@code offset}
+     */
+    public static int skipRecord(byte[] bytes, int offset) {
+        Reader reader = new Reader(bytes, offset, bytes.length);
+        int bodyLength = reader.readVarint();
+        if (bodyLength < 0 || bodyLength > bytes.length - reader.pos) {
+            throw new IllegalArgumentException("Truncated quiz result record");
+        }
+        return reader.pos + bodyLength;
+    }
+
+    /**
+     * Size of the record starting at an absolute index in a buffer, without
+     * changing its position
+     * @return Bytes up to the end of the record including its length prefix, or
+     *         -1 if the buffer ends inside the length prefix
+     * @throws IllegalArgumentException if the length prefix is malformed
+     */
+    public static int recordSize(ByteBuffer in, int index) {
+        int bodyLength = 0;
+        for (int i = 0; i < MAX_VARINT_BYTES; i++) {
+            if (index + i >= in.limit()) {
+                return -1;
+            }
+            byte b = in.get(index + i);
+            bodyLength |= (b & 0x7F) << (7 * i);
+            if (b >= 0) {
+                if (bodyLength < 0 || bodyLength > Integer.MAX_VALUE - i - 1) {
+                    throw new IllegalArgumentException("Malformed quiz result record length");
+                }
+                return i + 1 + bodyLength;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    // Cursor over an array region
+    private static final class Reader {
+        private final byte[] buf;
+        private final int limit;
+        private int pos;
+
+        Reader(byte[] buf, int pos, int limit) {
+            this.buf = buf;
+            this.pos = pos;
+            this.limit = limit;
+        }
+
+        QuizResult readRecord(QuestionBankSnapshot bank, ScoringEngine scoring) {
+            int bodyLength = readVarint();
+            int bodyEnd = pos + bodyLength;
+            if (bodyLength < 0 || bodyEnd > limit) {
+                throw new IllegalArgumentException("Truncated quiz result record");
+            }
+
+            int formatVersion = readVarint();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported quiz result format: " + formatVersion);
+            }
+            long bankVersion = unZigZag(readVarlong());
+            long completionMillis = unZigZag(readVarlong());
+            long timeTakenSeconds = unZigZag(readVarlong());
+            String playerName = readString();
+            String category = readString();
+
+            QuizResult result = new QuizResult(playerName, category, bankVersion, scoring);
+            result.setCompletionTime(LocalDateTime.ofEpochSecond(Math.floorDiv(completionMillis, 1000),
+                    (int) Math.floorMod(completionMillis, 1000L) * 1_000_000, ZoneOffset.UTC));
+            result.setTimeTakenSeconds(timeTakenSeconds);
+
+            int count = readVarint();
+            for (int i = 0; i < count; i++) {
+                int questionId = readVarint() - 1;
+                long answer = unZigZag(readVarlong());
+                int scored = readVarint();
+                int pointsEarned = unZigZag(scored >>> 1);
+                boolean correct = (scored & 1) != 0;
+                int maxPoints = readVarint();
+                long answerMillis = readVarlong();
+
+                String questionText = null, correctAnswer = null, selectedAnswer = null;
+                if (bank != null) {
+                    Question question = bank.getQuestion(questionId);
+                    if (question == null) {
+                        questionText = "Unknown question #" + questionId;
+                    } else if (question.getPublishedVersion() > bankVersion) {
+                        // The answer was given against an older version that the snapshot no longer has
+                        questionText = "Question #" + questionId + " (edited since this quiz)";
+                    } else {
+                        questionText = question.getQuestionText();
+                        correctAnswer = question.getCorrectAnswerText();
+                        selectedAnswer = question.formatAnswer(answer);
+                    }
+                    if (correctAnswer == null) {
+                        correctAnswer = "";
+                        selectedAnswer = "";
+                    }
+                }
+                result.restoreQuestionResult(new QuizResult.QuestionResult(questionId, answer, answerMillis,
+                        questionText, selectedAnswer, correctAnswer, correct, pointsEarned, maxPoints));
+            }
+
+            if (pos != bodyEnd) {
+                throw new IllegalArgumentException("Quiz result record length mismatch");
+            }
+            return result;
+        }
+
+        private String readString() {
+            int length = readVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > limit - pos) {
+                throw new IllegalArgumentException("Truncated quiz result record");
+            }
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = next();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        private long readVarlong() {
+            long value = 0;
+            for (int shift = 0; shift < 70; shift += 7) {
+                byte b = next();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        private byte next() {
+            if (pos >= limit) {
+                throw new IllegalArgumentException("Truncated quiz result record");
+            }
+            return buf[pos++];
+        }
+    }
+
+    private static int maxStringSize(String value) {
+        // UTF-8 needs at most 3 bytes per UTF-16 char
+        return MAX_VARINT_BYTES + (value == null ? 0 : value.length() * 3);
+    }
+
+    // UTF-8 written straight into the array, without an intermediate byte array for ASCII
+    private static int writeString(byte[] out, int pos, String value) {
+        if (value == null) {
+            return writeVarint(out, pos, 0);
+        }
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                pos = writeVarint(out, pos, bytes.length + 1);
+                System.arraycopy(bytes, 0, out, pos, bytes.length);
+                return pos + bytes.length;
+            }
+        }
+        pos = writeVarint(out, pos, length + 1);
+        for (int i = 0; i < length; i++) {
+            out[pos++] = (byte) value.charAt(i);
+        }
+        return pos;
+    }
+
+    private static int writeVarint(byte[] out, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static int writeVarlong(byte[] out, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static int zigZag(int value) { return (value << 1) ^ (value >> 31); }
+    private static long zigZag(long value) { return (value << 1) ^ (value >> 63); }
+    private static int unZigZag(int value) { return (value >>> 1) ^ -(value & 1); }
+    private static long unZigZag(long value) { return (value >>> 1) ^ -(value & 1); }
+}
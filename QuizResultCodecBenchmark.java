@@ -0,0 +1,99 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * QuizResultCodecBenchmark - throughput and size of QuizResultCodec
+ * Compares the binary codec with Java serialization of the same results.
+ *
+ * Usage: java QuizResultCodecBenchmark [results=1000000] [questions=10] [rounds=5]
+ */
+public class QuizResultCodecBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.Options options = BenchmarkSupport.parseOptions(args, "results", "questions", "rounds");
+        int resultCount = options.getInt("results", 1_000_000);
+        int questionsPerQuiz = options.getInt("questions", 10);
+        int rounds = options.getInt("rounds", 5);
+
+        QuizManager quizManager = new QuizManager();
+        QuestionBankSnapshot bank = quizManager.getSnapshot();
+        List<QuizResult> results = generateResults(quizManager, bank, resultCount, questionsPerQuiz);
+
+        int capacity = 0;
+        for (QuizResult result : results) {
+            capacity += QuizResultCodec.maxEncodedSize(result);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+
+        System.out.println("Results: " + resultCount + ", answers per result: " + questionsPerQuiz);
+        for (int round = 1; round <= rounds; round++) {
+            buffer.clear();
+            long start = System.nanoTime();
+            for (QuizResult result : results) {
+                QuizResultCodec.encode(result, buffer);
+            }
+            long encodeNanos = System.nanoTime() - start;
+            int encodedBytes = buffer.position();
+
+            buffer.flip();
+            long checksum = 0;
+            start = System.nanoTime();
+            while (buffer.hasRemaining()) {
+                checksum += QuizResultCodec.decode(buffer, bank).getTotalScore();
+            }
+            long decodeNanos = System.nanoTime() - start;
+
+            System.out.println(String.format("Round %d: encode %.2fM results/s, decode %.2fM results/s, %.1f bytes/result (checksum %d)",
+                    round, resultCount / (encodeNanos / 1e3), resultCount / (decodeNanos / 1e3),
+                    (double) encodedBytes / resultCount, checksum));
+        }
+
+        // Java serialization baseline on a sample, since it is much slower
+        int sample = Math.min(resultCount, 100_000);
+        long start = System.nanoTime();
+        long serializedBytes = 0;
+        List<byte[]> serialized = new ArrayList<>(sample);
+        for (int i = 0; i < sample; i++) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(results.get(i));
+            }
+            serialized.add(bytes.toByteArray());
+            serializedBytes += bytes.size();
+        }
+        long encodeNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (byte[] bytes : serialized) {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                in.readObject();
+            }
+        }
+        long decodeNanos = System.nanoTime() - start;
+        System.out.println(String.format("Java serialization: encode %.2fM results/s, decode %.2fM results/s, %.1f bytes/result",
+                sample / (encodeNanos / 1e3), sample / (decodeNanos / 1e3), (double) serializedBytes / sample));
+    }
+
+    private static List<QuizResult> generateResults(QuizManager quizManager, QuestionBankSnapshot bank,
+                                                    int count, int questionsPerQuiz) {
+        SplittableRandom random = new SplittableRandom(7);
+        List<String> categories = new ArrayList<>(bank.getCategories());
+        List<QuizResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String category = categories.get(random.nextInt(categories.size()));
+            QuizResult result = new QuizResult("player-" + (i % 10_000), category, bank.getVersion());
+            for (Question question : quizManager.createQuiz(bank, category, questionsPerQuiz)) {
+                int selected = random.nextInt(question.getOptions().size());
+                result.addQuestionResult(question, selected, question.getOptionText(selected), 2_000 + random.nextInt(20_000));
+            }
+            result.setTimeTakenSeconds(random.nextInt(600));
+            results.add(result);
+        }
+        return results;
+    }
+}
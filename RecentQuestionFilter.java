@@ -0,0 +1,100 @@
+import java.util.Arrays;
+
+/**
+ * RecentQuestionFilter class to remember which questions a player has seen
+ * A pair of rotating bloom filters: lookups may report false positives but never
+ * false negatives, and old entries age out once the newer filter fills up.
+ * Thread-safe, since one player can have several quizzes going at once.
+ */
+public class RecentQuestionFilter {
+    private static final int HASH_FUNCTIONS = 4;
+    private static final int BITS_PER_ENTRY = 10;
+
+    private final int capacity;
+    private final int bitCount;
+    private long[] current;
+    private long[] previous;
+    private int currentSize;
+
+    // Constructor
+    public RecentQuestionFilter(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.bitCount = Math.max(64, capacity * BITS_PER_ENTRY);
+        this.current = new long[(bitCount + 63) / 64];
+        this.previous = new long[current.length];
+        this.currentSize = 0;
+    }
+
+    /**
+     * Record that a question has been shown
+     */
+    public synchronized void add(int questionId) {
+        if (currentSize >= capacity) {
+            rotate();
+        }
+        int h1 = mix(questionId);
+        int h2 = mix(h1 ^ 0x5bd1e995);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = index(h1 + i * h2);
+            current[bit >>> 6] |= 1L << bit;
+        }
+        currentSize++;
+    }
+
+    /**
+     * Check whether a question was probably shown recently
+     * @return false if definitely not seen, true if probably seen
+     */
+    public synchronized boolean mightContain(int questionId) {
+        int h1 = mix(questionId);
+        int h2 = mix(h1 ^ 0x5bd1e995);
+        return contains(current, h1, h2) || contains(previous, h1, h2);
+    }
+
+    /**
+     * Forget everything recorded so far
+     */
+    public synchronized void clear() {
+        Arrays.fill(current, 0L);
+        Arrays.fill(previous, 0L);
+        currentSize = 0;
+    }
+
+    private boolean contains(long[] bits, int h1, int h2) {
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = index(h1 + i * h2);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Drop the oldest generation and start a fresh one
+    private void rotate() {
+        long[] recycled = previous;
+        Arrays.fill(recycled, 0L);
+        previous = current;
+        current = recycled;
+        currentSize = 0;
+    }
+
+    private int index(int hash) {
+        return (hash & Integer.MAX_VALUE) % bitCount;
+    }
+
+    // Murmur3 finalizer
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    public int getCapacity() { return capacity; }
+}
@@ -0,0 +1,94 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ScoreSketch class - a mergeable streaming summary of percentage scores
+ * Scores are bounded to 0-100, so a fixed histogram at 0.1% resolution gives
+ * quantiles and ranks with a known error bound in constant memory, unlike
+ * t-digest or KLL whose error depends on the data. Updates are a single atomic
+ * increment and can run concurrently with reads.
+ */
+public class ScoreSketch {
+    // Buckets per percentage point
+    private static final int RESOLUTION = 10;
+    private static final int BUCKETS = 100 * RESOLUTION + 1;
+
+    private final AtomicLongArray counts;
+
+    public ScoreSketch() {
+        this.counts = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * Record one score
+     * @param percentage Score in the range 0-100; values outside are clamped
+     */
+    public void add(double percentage) {
+        counts.incrementAndGet(bucket(percentage));
+    }
+
+    /**
+     * Fold another sketch's counts into this one
+     */
+    public void merge(ScoreSketch other) {
+        for (int b = 0; b < BUCKETS; b++) {
+            long count = other.counts.get(b);
+            if (count != 0) {
+                counts.addAndGet(b, count);
+            }
+        }
+    }
+
+    /**
+     * Percentile rank of a score: the share of recorded scores below it, counting
+     * ties as half, so the median score ranks 50
+     * @return Rank from 0 to 100, or 100 if nothing has been recorded
+     */
+    public double percentileRank(double percentage) {
+        int target = bucket(percentage);
+        long below = 0, same = 0, total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            long count = counts.get(b);
+            if (b < target) {
+                below += count;
+            } else if (b == target) {
+                same = count;
+            }
+            total += count;
+        }
+        if (total == 0) return 100.0;
+        return (below + same / 2.0) / total * 100.0;
+    }
+
+    /**
+     * Score at a given quantile
+     * @param quantile Between 0 and 1
+     * @return The lower edge of the bucket holding that quantile, or 0 if empty
+     */
+    public double quantile(double quantile) {
+        long total = getCount();
+        if (total == 0) return 0.0;
+        long target = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts.get(b);
+            if (seen >= target) {
+                return (double) b / RESOLUTION;
+            }
+        }
+        return 100.0;
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            total += counts.get(b);
+        }
+        return total;
+    }
+
+    private static int bucket(double percentage) {
+        if (Double.isNaN(percentage) || percentage <= 0) return 0;
+        if (percentage >= 100) return BUCKETS - 1;
+        return (int) (percentage * RESOLUTION);
+    }
+}
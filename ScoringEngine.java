@@ -0,0 +1,205 @@
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ScoringEngine class - ScoringRules compiled into flat lookup tables
+ * Compile once per rule set (e.g. per tenant) and share it. Scoring an answer
+ * is a couple of table reads and integer arithmetic with no allocation, and
+ * grading a percentage is a single array lookup. Instances are immutable and
+ * thread-safe. Only the rules are serialized; the tables are rebuilt on read.
+ */
+public final class ScoringEngine implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // Time bonus resolution and the longest answer time the table covers
+    private static final int TIME_STEP_MILLIS = 100;
+    private static final long MAX_BONUS_WINDOW_MILLIS = 30 * 60 * 1000L;
+    // Grade lookup resolution: buckets per percentage point
+    private static final int GRADE_RESOLUTION = 10;
+    private static final int GRADE_BUCKETS = 100 * GRADE_RESOLUTION + 1;
+
+    public static final ScoringEngine DEFAULT = compile(ScoringRules.defaults());
+
+    private final ScoringRules rules;
+    // All fractions are stored in thousandths
+    private final int wrongPenaltyPermille;
+    private final int[] timeBonusPermille;
+    private final boolean partialCredit;
+    private final int wrongSelectionPenaltyPermille;
+    private final byte[] bandByBucket;
+    private final String[] grades;
+    private final String[] messages;
+
+    private ScoringEngine(ScoringRules rules, int wrongPenaltyPermille, int[] timeBonusPermille, boolean partialCredit,
+                          int wrongSelectionPenaltyPermille, byte[] bandByBucket, String[] grades, String[] messages) {
+        this.rules = rules;
+        this.wrongPenaltyPermille = wrongPenaltyPermille;
+        this.timeBonusPermille = timeBonusPermille;
+        this.partialCredit = partialCredit;
+        this.wrongSelectionPenaltyPermille = wrongSelectionPenaltyPermille;
+        this.bandByBucket = bandByBucket;
+        this.grades = grades;
+        this.messages = messages;
+    }
+
+    /**
+     * Build the lookup tables for a rule set
+     * @throws IllegalArgumentException if the rules have no grade bands or too many
+     */
+    public static ScoringEngine compile(ScoringRules rules) {
+        List<ScoringRules.GradeBand> bands = new ArrayList<>(rules.getGradeBands());
+        if (bands.isEmpty() || bands.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("A grade scale needs between 1 and " + Byte.MAX_VALUE + " bands");
+        }
+        // Highest threshold first so the first match wins
+        bands.sort((a, b) -> Double.compare(b.getMinPercentage(), a.getMinPercentage()));
+        String[] grades = new String[bands.size()];
+        String[] messages = new String[bands.size()];
+        for (int i = 0; i < bands.size(); i++) {
+            grades[i] = bands.get(i).getGrade();
+            messages[i] = bands.get(i).getMessage();
+        }
+
+        // Scores below the lowest threshold fall into the lowest band
+        byte[] bandByBucket = new byte[GRADE_BUCKETS];
+        for (int bucket = 0; bucket < GRADE_BUCKETS; bucket++) {
+            double percentage = (double) bucket / GRADE_RESOLUTION;
+            int band = bands.size() - 1;
+            for (int i = 0; i < bands.size(); i++) {
+                if (percentage >= bands.get(i).getMinPercentage()) {
+                    band = i;
+                    break;
+                }
+            }
+            bandByBucket[bucket] = (byte) band;
+        }
+
+        // Slot 0 is for unknown answer times and never earns a bonus
+        int[] timeBonus = new int[1];
+        if (rules.getMaxTimeBonus() > 0) {
+            long window = Math.min(rules.getNoBonusAfterMillis(), MAX_BONUS_WINDOW_MILLIS);
+            int slots = (int) (window / TIME_STEP_MILLIS) + 2;
+            timeBonus = new int[slots];
+            int maxPermille = (int) Math.round(rules.getMaxTimeBonus() * 1000);
+            for (int slot = 1; slot < slots; slot++) {
+                long millis = (long) slot * TIME_STEP_MILLIS;
+                double share;
+                if (millis <= rules.getFullBonusWithinMillis()) {
+                    share = 1.0;
+                } else if (millis >= rules.getNoBonusAfterMillis()) {
+                    share = 0.0;
+                } else {
+                    share = (double) (rules.getNoBonusAfterMillis() - millis) /
+                            (rules.getNoBonusAfterMillis() - rules.getFullBonusWithinMillis());
+                }
+                timeBonus[slot] = (int) Math.round(maxPermille * share);
+            }
+        }
+
+        return new ScoringEngine(
+                new ScoringRules(rules),
+                (int) Math.round(rules.getWrongAnswerPenalty() * 1000),
+                timeBonus,
+                rules.isPartialCredit(),
+                (int) Math.round(rules.getWrongSelectionPenalty() * 1000),
+                bandByBucket, grades, messages);
+    }
+
+    /**
+     * Points for a single-answer question
+     * @param answerMillis Time taken to answer; 0 or less when unknown (no bonus)
+     */
+    public int score(int points, boolean correct, long answerMillis) {
+        if (correct) {
+            return points + (points * timeBonusPermille[timeSlot(answerMillis)] + 500) / 1000;
+        }
+        return -((points * wrongPenaltyPermille + 500) / 1000);
+    }
+
+    /**
+     * Points for a question with several right options
+     * Without partial credit only a fully right selection scores. With it, each
+     * right option chosen earns its share and each wrong one cancels part of that.
+     * A selection worth nothing is treated as a wrong answer.
+     */
+    public int scorePartial(int points, int rightChosen, int wrongChosen, int rightTotal, long answerMillis) {
+        boolean fullyRight = rightChosen == rightTotal && wrongChosen == 0;
+        if (!partialCredit || fullyRight) {
+            return score(points, fullyRight, answerMillis);
+        }
+        int creditPermille = rightTotal == 0 ? 0 :
+                (rightChosen * 1000 - wrongChosen * wrongSelectionPenaltyPermille) / rightTotal;
+        if (creditPermille <= 0) {
+            return score(points, false, answerMillis);
+        }
+        return (points * creditPermille + 500) / 1000;
+    }
+
+    public String getGrade(double percentage) {
+        return grades[bandByBucket[gradeBucket(percentage)]];
+    }
+
+    public String getPerformanceMessage(double percentage) {
+        return messages[bandByBucket[gradeBucket(percentage)]];
+    }
+
+    /**
+     * Get the grade band a percentage falls in
+     * @return Index into getGrades(), 0 being the highest grade
+     */
+    public int getGradeBand(double percentage) {
+        return bandByBucket[gradeBucket(percentage)];
+    }
+
+    /**
+     * Get the grade scale, highest grade first
+     */
+    public List<String> getGrades() {
+        return Collections.unmodifiableList(Arrays.asList(grades));
+    }
+
+    public boolean isPartialCredit() { return partialCredit; }
+
+    /**
+     * Get a copy of the rules this engine was compiled from
+     */
+    public ScoringRules getRules() { return new ScoringRules(rules); }
+
+    // Serialization proxy: the default engine is written as a marker, others as their rules
+    private static final class SerializedForm implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final ScoringRules rules;
+
+        SerializedForm(ScoringRules rules) {
+            this.rules = rules;
+        }
+
+        private Object readResolve() {
+            return rules == null ? DEFAULT : compile(rules);
+        }
+    }
+
+    private Object writeReplace() {
+        return new SerializedForm(this == DEFAULT ? null : rules);
+    }
+
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("ScoringEngine is read through its serialized form");
+    }
+
+    private int timeSlot(long answerMillis) {
+        long slot = (answerMillis + TIME_STEP_MILLIS - 1) / TIME_STEP_MILLIS;
+        return (int) Math.max(0, Math.min(slot, timeBonusPermille.length - 1));
+    }
+
+    private static int gradeBucket(double percentage) {
+        int bucket = (int) (percentage * GRADE_RESOLUTION);
+        return Math.max(0, Math.min(bucket, GRADE_BUCKETS - 1));
+    }
+}
@@ -0,0 +1,146 @@
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ScoringRules class - a declarative description of how answers are scored and graded
+ * Covers negative marking, time bonuses, partial credit for multi-answer
+ * questions and the grade scale. Compile it with ScoringEngine.compile before use.
+ */
+public class ScoringRules implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private double wrongAnswerPenalty;
+    private double maxTimeBonus;
+    private long fullBonusWithinMillis;
+    private long noBonusAfterMillis;
+    private boolean partialCredit;
+    private double wrongSelectionPenalty;
+    private List<GradeBand> gradeBands;
+
+    // Constructor: no penalties, no bonuses, all-or-nothing, and no grade bands yet
+    public ScoringRules() {
+        this.wrongAnswerPenalty = 0.0;
+        this.maxTimeBonus = 0.0;
+        this.fullBonusWithinMillis = 0;
+        this.noBonusAfterMillis = 0;
+        this.partialCredit = false;
+        this.wrongSelectionPenalty = 0.0;
+        this.gradeBands = new ArrayList<>();
+    }
+
+    // Copy constructor
+    public ScoringRules(ScoringRules other) {
+        this.wrongAnswerPenalty = other.wrongAnswerPenalty;
+        this.maxTimeBonus = other.maxTimeBonus;
+        this.fullBonusWithinMillis = other.fullBonusWithinMillis;
+        this.noBonusAfterMillis = other.noBonusAfterMillis;
+        this.partialCredit = other.partialCredit;
+        this.wrongSelectionPenalty = other.wrongSelectionPenalty;
+        this.gradeBands = new ArrayList<>(other.gradeBands);
+    }
+
+    /**
+     * The app's standard rules: all-or-nothing scoring and the A+ to F scale
+     */
+    public static ScoringRules defaults() {
+        return new ScoringRules()
+                .gradeBand(90, "A+", "Excellent! Outstanding performance!")
+                .gradeBand(80, "A", "Great job! Very good performance!")
+                .gradeBand(70, "B", "Good work! Above average performance!")
+                .gradeBand(60, "C", "Fair performance. Keep practicing!")
+                .gradeBand(50, "D", "Below average. More study needed.")
+                .gradeBand(0, "F", "Poor performance. Please review the material.");
+    }
+
+    // Inner class for one step of the grade scale
+    public static class GradeBand implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final double minPercentage;
+        private final String grade;
+        private final String message;
+
+        public GradeBand(double minPercentage, String grade, String message) {
+            this.minPercentage = minPercentage;
+            this.grade = grade;
+            this.message = message;
+        }
+
+        // Getters
+        public double getMinPercentage() { return minPercentage; }
+        public String getGrade() { return grade; }
+        public String getMessage() { return message; }
+    }
+
+    /**
+     * Deduct a share of the question's points for a wrong answer
+     * @param fraction e.g. 0.25 deducts a quarter of the points
+     */
+    public ScoringRules negativeMarking(double fraction) {
+        if (fraction < 0 || fraction > 1) {
+            throw new IllegalArgumentException("Penalty fraction must be between 0 and 1");
+        }
+        this.wrongAnswerPenalty = fraction;
+        return this;
+    }
+
+    /**
+     * Reward fast correct answers with extra points
+     * @param maxFraction Bonus as a share of the question's points for the fastest answers
+     * @param fullBonusWithinMillis Answers this fast get the whole bonus
+     * @param noBonusAfterMillis Answers this slow get none; in between it falls linearly
+     */
+    public ScoringRules timeBonus(double maxFraction, long fullBonusWithinMillis, long noBonusAfterMillis) {
+        if (maxFraction < 0 || fullBonusWithinMillis < 0 || noBonusAfterMillis < fullBonusWithinMillis) {
+            throw new IllegalArgumentException("Invalid time bonus settings");
+        }
+        this.maxTimeBonus = maxFraction;
+        this.fullBonusWithinMillis = fullBonusWithinMillis;
+        this.noBonusAfterMillis = noBonusAfterMillis;
+        return this;
+    }
+
+    /**
+     * Give proportional credit on questions with several right options
+     * @param wrongSelectionPenalty Each wrong option chosen cancels this many right ones
+     */
+    public ScoringRules partialCredit(double wrongSelectionPenalty) {
+        if (wrongSelectionPenalty < 0) {
+            throw new IllegalArgumentException("Penalty must not be negative");
+        }
+        this.partialCredit = true;
+        this.wrongSelectionPenalty = wrongSelectionPenalty;
+        return this;
+    }
+
+    /**
+     * Add a step to the grade scale; scores at or above the minimum get this grade
+     * unless a higher band also matches
+     */
+    public ScoringRules gradeBand(double minPercentage, String grade, String message) {
+        if (grade == null || grade.trim().isEmpty()) {
+            throw new IllegalArgumentException("Grade must not be empty");
+        }
+        gradeBands.add(new GradeBand(minPercentage, grade, message));
+        return this;
+    }
+
+    /**
+     * Replace the whole grade scale
+     */
+    public ScoringRules clearGradeBands() {
+        gradeBands.clear();
+        return this;
+    }
+
+    // Getters
+    public double getWrongAnswerPenalty() { return wrongAnswerPenalty; }
+    public double getMaxTimeBonus() { return maxTimeBonus; }
+    public long getFullBonusWithinMillis() { return fullBonusWithinMillis; }
+    public long getNoBonusAfterMillis() { return noBonusAfterMillis; }
+    public boolean isPartialCredit() { return partialCredit; }
+    public double getWrongSelectionPenalty() { return wrongSelectionPenalty; }
+    public List<GradeBand> getGradeBands() { return Collections.unmodifiableList(gradeBands); }
+}
@@ -0,0 +1,61 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * ScriptedQuizConsole class for running the app headless
+ * Input comes from a prepared list of lines; output is either captured in
+ * memory or discarded so automated runs are not bound by terminal speed
+ */
+public class ScriptedQuizConsole implements QuizConsole {
+    private final List<String> inputLines;
+    private final StringBuilder output;
+    private int nextLine;
+
+    /**
+     * @param inputLines Lines to answer prompts with, in order
+     * @param captureOutput true to keep output for getOutput(), false to discard it
+     */
+    public ScriptedQuizConsole(List<String> inputLines, boolean captureOutput) {
+        this.inputLines = new ArrayList<>(inputLines);
+        this.output = captureOutput ? new StringBuilder() : null;
+        this.nextLine = 0;
+    }
+
+    @Override
+    public void print(String text) {
+        if (output != null) {
+            output.append(text);
+        }
+    }
+
+    @Override
+    public void println(String text) {
+        if (output != null) {
+            output.append(text).append('\n');
+        }
+    }
+
+    @Override
+    public String readLine() {
+        if (nextLine >= inputLines.size()) {
+            throw new NoSuchElementException("No line found");
+        }
+        return inputLines.get(nextLine++);
+    }
+
+    @Override
+    public void flush() {
+        // Nothing is buffered
+    }
+
+    @Override
+    public void close() {
+        // No underlying resources
+    }
+
+    // Getters
+    public String getOutput() { return output == null ? "" : output.toString(); }
+    public int getLinesConsumed() { return nextLine; }
+    public boolean hasRemainingInput() { return nextLine < inputLines.size(); }
+}
@@ -0,0 +1,114 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * StreamQuizConsole class backed by byte streams such as System.in and System.out
+ * Output is buffered and flushed once per screen (whenever input is requested)
+ * rather than per line. Input is read ahead on a background thread so reading
+ * never blocks on the stream itself while there are lines waiting.
+ */
+public class StreamQuizConsole implements QuizConsole {
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+    private static final int INPUT_QUEUE_CAPACITY = 1024;
+    // Marks the end of input in the queue; compared by identity
+    private static final String END_OF_INPUT = new String("<eof>");
+
+    private final Writer output;
+    private final BlockingQueue<String> pendingLines;
+    private final Thread readerThread;
+    private boolean inputEnded;
+
+    // Constructor
+    public StreamQuizConsole(InputStream in, OutputStream out) {
+        this.output = new BufferedWriter(new OutputStreamWriter(out), OUTPUT_BUFFER_SIZE);
+        this.pendingLines = new ArrayBlockingQueue<>(INPUT_QUEUE_CAPACITY);
+        this.inputEnded = false;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+        this.readerThread = new Thread(() -> readAhead(reader), "quiz-console-reader");
+        this.readerThread.setDaemon(true);
+        this.readerThread.start();
+    }
+
+    @Override
+    public void print(String text) {
+        write(text);
+    }
+
+    @Override
+    public void println(String text) {
+        write(text);
+        write(System.lineSeparator());
+    }
+
+    @Override
+    public String readLine() {
+        flush();
+        if (inputEnded) {
+            throw new NoSuchElementException("No line found");
+        }
+        try {
+            String line = pendingLines.take();
+            if (line == END_OF_INPUT) {
+                inputEnded = true;
+                throw new NoSuchElementException("No line found");
+            }
+            return line;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NoSuchElementException("Interrupted while waiting for input");
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        readerThread.interrupt();
+    }
+
+    private void write(String text) {
+        try {
+            output.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Runs on the reader thread; the bounded queue applies backpressure to fast producers
+    private void readAhead(BufferedReader reader) {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                pendingLines.put(line);
+            }
+        } catch (IOException e) {
+            // Treat a broken input stream like end of input
+        } catch (InterruptedException e) {
+            return;
+        }
+        try {
+            pendingLines.put(END_OF_INPUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
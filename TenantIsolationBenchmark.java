@@ -0,0 +1,87 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * TenantIsolationBenchmark - createQuiz latency of a quiet tenant while another imports
+ * Measures the quiet tenant alone, then again while a noisy tenant imports a
+ * large synthetic bank through the same TenantRegistry, and reports latency
+ * percentiles for both phases along with the import's progress.
+ *
+ * Usage: java TenantIsolationBenchmark [questions=1000000] [workers=2]
+ *        [requests=20000] [noisyBudgetMb=512]
+ */
+public class TenantIsolationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkSupport.Options options = BenchmarkSupport.parseOptions(args,
+                "questions", "workers", "requests", "noisyBudgetMb");
+        int questionCount = options.getInt("questions", 1_000_000);
+        int workers = options.getInt("workers", 2);
+        int requests = options.getInt("requests", 20_000);
+        long noisyBudgetMb = options.getLong("noisyBudgetMb", 512);
+
+        try (TenantRegistry registry = new TenantRegistry(workers)) {
+            registry.loadTenant("quiet", new TenantRegistry.Budget(16L << 20, 1_000, 64), true);
+            registry.loadTenant("noisy", new TenantRegistry.Budget(noisyBudgetMb << 20, 1_000, 64), false);
+
+            // Warm up, then measure the quiet tenant on its own
+            measure(registry, requests, null);
+            long[] alone = measure(registry, requests, null);
+            System.out.println("Quiet tenant alone:         " + percentiles(alone));
+
+            long start = System.nanoTime();
+            CompletableFuture<Integer> imported = registry.importQuestions("noisy", syntheticQuestions(questionCount));
+            long[] contended = measure(registry, requests, imported);
+            System.out.println("Quiet tenant during import: " + percentiles(contended));
+
+            int added = imported.get();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            QuizManager noisy = registry.getTenant("noisy").getQuizManager();
+            System.out.println(String.format("Noisy tenant imported %d of %d questions in %.1fs (%.0f/s), ~%d MB of %d MB budget%s",
+                    added, questionCount, seconds, added / seconds, noisy.getEstimatedBankBytes() >> 20, noisyBudgetMb,
+                    added < questionCount ? " (budget reached)" : ""));
+        }
+    }
+
+    // Latency in nanoseconds of sequential createQuiz calls; stops early once the import is done
+    private static long[] measure(TenantRegistry registry, int requests, CompletableFuture<?> until) throws Exception {
+        long[] latencies = new long[requests];
+        int done = 0;
+        while (done < requests && (until == null || !until.isDone() || done < 100)) {
+            long start = System.nanoTime();
+            registry.createMixedQuiz("quiet", 5).get();
+            latencies[done++] = System.nanoTime() - start;
+        }
+        latencies = Arrays.copyOf(latencies, done);
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static String percentiles(long[] sorted) {
+        return String.format("n=%d p50=%.0fus p99=%.0fus p99.9=%.0fus max=%.0fus", sorted.length,
+                at(sorted, 0.50), at(sorted, 0.99), at(sorted, 0.999), sorted[sorted.length - 1] / 1e3);
+    }
+
+    private static double at(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) (quantile * sorted.length))] / 1e3;
+    }
+
+    // Questions generated on demand so the source list costs no memory
+    private static List<Question> syntheticQuestions(int count) {
+        return new AbstractList<Question>() {
+            @Override
+            public Question get(int index) {
+                return new Question("Synthetic question " + index + " about topic " + (index % 977) + "?",
+                        Arrays.asList("Answer " + index, "Option " + (index + 1), "Option " + (index + 2), "Option " + (index + 3)),
+                        index % 4, "Imported " + (index % 50), 5 + index % 11);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+}
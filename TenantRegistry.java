@@ -0,0 +1,286 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TenantRegistry class - isolated question banks for several organisations in one JVM
+ * Each tenant has its own QuizManager (bank, indexes, scoring rules), rank
+ * tracker and bounded result history, and can be loaded and unloaded on its
+ * own. Quiz creation, grading and imports run on a shared FairTaskScheduler,
+ * so every tenant gets its turn on the workers. Large imports are split into
+ * chunks that queue behind other tenants' work rather than hogging a worker.
+ * A chunk that finds the tenant's queue full waits and tries again, so an
+ * import only fails if the queue stays full, the tenant is unloaded or a
+ * chunk throws; ImportFailedException then says how much was added.
+ * Translation locales are the one thing tenants share: QuizLocale IDs are
+ * JVM-wide, so all tenants together can use at most QuizLocale.MAX_LOCALES tags.
+ */
+public class TenantRegistry implements AutoCloseable {
+    // Questions per import task; bounds how long one task holds a worker
+    private static final int IMPORT_CHUNK_SIZE = 2_000;
+    // Retries of a chunk rejected by a full queue; the wait doubles up to the cap, about 6 s in all
+    private static final int IMPORT_MAX_RETRIES = 50;
+    private static final long IMPORT_MAX_RETRY_DELAY_MILLIS = 128;
+
+    private final Map<String, Tenant> tenants;
+    private final FairTaskScheduler scheduler;
+
+    // Inner class with a tenant's limits
+    public static class Budget {
+        private final long maxBankBytes;
+        private final int maxHistoryResults;
+        private final int maxQueuedTasks;
+
+        /**
+         * @param maxBankBytes Cap on the bank's estimated memory use
+         * @param maxHistoryResults Results kept in history; older ones are dropped
+         * @param maxQueuedTasks Tasks that may wait before further requests are rejected
+         */
+        public Budget(long maxBankBytes, int maxHistoryResults, int maxQueuedTasks) {
+            if (maxBankBytes <= 0 || maxHistoryResults < 0 || maxQueuedTasks <= 0) {
+                throw new IllegalArgumentException("Invalid tenant budget");
+            }
+            this.maxBankBytes = maxBankBytes;
+            this.maxHistoryResults = maxHistoryResults;
+            this.maxQueuedTasks = maxQueuedTasks;
+        }
+
+        // Getters
+        public long getMaxBankBytes() { return maxBankBytes; }
+        public int getMaxHistoryResults() { return maxHistoryResults; }
+        public int getMaxQueuedTasks() { return maxQueuedTasks; }
+    }
+
+    // Inner class reporting an import that stopped partway
+    public static class ImportFailedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int addedCount;
+
+        ImportFailedException(String tenantId, int addedCount, Throwable cause) {
+            super("Import into " + tenantId + " failed after adding " + addedCount + " questions: " + cause, cause);
+            this.addedCount = addedCount;
+        }
+
+        // Questions added before the failure; they stay in the bank
+        public int getAddedCount() { return addedCount; }
+    }
+
+    // Inner class holding everything one tenant owns
+    public static class Tenant {
+        private final String id;
+        private final Budget budget;
+        private final QuizManager quizManager;
+        private final PercentileRankTracker rankTracker;
+        private final Deque<QuizResult> history;
+
+        Tenant(String id, Budget budget, QuizManager quizManager) {
+            this.id = id;
+            this.budget = budget;
+            this.quizManager = quizManager;
+            this.rankTracker = new PercentileRankTracker();
+            this.history = new ArrayDeque<>();
+        }
+
+        void record(QuizResult result) {
+            rankTracker.record(result);
+            synchronized (history) {
+                if (budget.getMaxHistoryResults() == 0) {
+                    return;
+                }
+                if (history.size() == budget.getMaxHistoryResults()) {
+                    history.removeFirst();
+                }
+                history.addLast(result);
+            }
+        }
+
+        // Getters
+        public String getId() { return id; }
+        public Budget getBudget() { return budget; }
+        public QuizManager getQuizManager() { return quizManager; }
+        public PercentileRankTracker getRankTracker() { return rankTracker; }
+
+        public List<QuizResult> getHistory() {
+            synchronized (history) {
+                return new ArrayList<>(history);
+            }
+        }
+    }
+
+    /**
+     * Constructor
+     * @param workerCount Worker threads shared by all tenants
+     */
+    public TenantRegistry(int workerCount) {
+        this.tenants = new ConcurrentHashMap<>();
+        // One tenant may use at most half the workers, leaving room for the rest
+        this.scheduler = new FairTaskScheduler(workerCount, Math.max(1, workerCount / 2));
+    }
+
+    /**
+     * Load a tenant with an empty bank, or with the built-in questions
+     * @throws IllegalArgumentException if a tenant with this ID is already loaded
+     */
+    public Tenant loadTenant(String tenantId, Budget budget, boolean withDefaultQuestions) {
+        QuizManager quizManager = new QuizManager(withDefaultQuestions);
+        quizManager.setMaxBankBytes(budget.getMaxBankBytes());
+        Tenant tenant = new Tenant(tenantId, budget, quizManager);
+        if (tenants.putIfAbsent(tenantId, tenant) != null) {
+            throw new IllegalArgumentException("Tenant already loaded: " + tenantId);
+        }
+        scheduler.addKey(tenantId, budget.getMaxQueuedTasks());
+        return tenant;
+    }
+
+    /**
+     * Unload a tenant; its queued work is cancelled and its bank, indexes and
+     * history become garbage once running tasks finish
+     * @return true if the tenant was loaded
+     */
+    public boolean unloadTenant(String tenantId) {
+        if (tenants.remove(tenantId) == null) {
+            return false;
+        }
+        scheduler.removeKey(tenantId);
+        return true;
+    }
+
+    /**
+     * Get a loaded tenant
+     * @throws IllegalArgumentException if the tenant is not loaded
+     */
+    public Tenant getTenant(String tenantId) {
+        Tenant tenant = tenants.get(tenantId);
+        if (tenant == null) {
+            throw new IllegalArgumentException("Tenant not loaded: " + tenantId);
+        }
+        return tenant;
+    }
+
+    public List<String> getTenantIds() {
+        return Collections.unmodifiableList(new ArrayList<>(tenants.keySet()));
+    }
+
+    /**
+     * Create a quiz from one category of a tenant's bank, scheduled fairly
+     * @throws java.util.concurrent.RejectedExecutionException if the tenant's queue is full
+     */
+    public CompletableFuture<List<Question>> createQuiz(String tenantId, String category, int numberOfQuestions) {
+        QuizManager quizManager = getTenant(tenantId).getQuizManager();
+        return scheduler.submit(tenantId, () -> quizManager.createQuiz(category, numberOfQuestions));
+    }
+
+    /**
+     * Create a quiz drawn from all of a tenant's categories, scheduled fairly
+     * @throws java.util.concurrent.RejectedExecutionException if the tenant's queue is full
+     */
+    public CompletableFuture<List<Question>> createMixedQuiz(String tenantId, int numberOfQuestions) {
+        QuizManager quizManager = getTenant(tenantId).getQuizManager();
+        return scheduler.submit(tenantId, () -> quizManager.createMixedQuiz(numberOfQuestions));
+    }
+
+    /**
+     * Grade a finished quiz with the tenant's scoring rules and add it to the
+     * tenant's history and ranks
+     * @param answers Encoded answers (see Question.parseAnswer), one per question
+     * @param answerMillis Time taken per answer, or null if unknown
+     */
+    public CompletableFuture<QuizResult> gradeQuiz(String tenantId, String playerName, String category,
+                                                   List<Question> questions, long[] answers, long[] answerMillis) {
+        if (answers.length != questions.size() || (answerMillis != null && answerMillis.length != answers.length)) {
+            throw new IllegalArgumentException("Need one answer per question");
+        }
+        Tenant tenant = getTenant(tenantId);
+        QuizManager quizManager = tenant.getQuizManager();
+        return scheduler.submit(tenantId, () -> {
+            QuizResult result = new QuizResult(playerName, category, quizManager.getBankVersion(),
+                    quizManager.getScoringEngine());
+            long totalMillis = 0;
+            for (int i = 0; i < answers.length; i++) {
+                long millis = answerMillis == null ? 0 : answerMillis[i];
+                totalMillis += millis;
+                result.addAnswer(questions.get(i), answers[i], millis);
+            }
+            result.setTimeTakenSeconds(totalMillis / 1000);
+            tenant.record(result);
+            return result;
+        });
+    }
+
+    /**
+     * Import questions into a tenant's bank in chunks, one queued task at a time
+     * Stops early once the tenant's memory budget is reached. Chunks added
+     * before a failure stay in the bank.
+     * @return Future with the number of questions added; it fails with an
+     *         ImportFailedException carrying the count added so far
+     */
+    public CompletableFuture<Integer> importQuestions(String tenantId, List<? extends Question> questions) {
+        QuizManager quizManager = getTenant(tenantId).getQuizManager();
+        CompletableFuture<Integer> done = new CompletableFuture<>();
+        importChunk(tenantId, quizManager, questions, 0, new AtomicInteger(), 0, done);
+        return done;
+    }
+
+    // Each chunk queues the next when it finishes, so other tenants' tasks slot in between
+    private void importChunk(String tenantId, QuizManager quizManager, List<? extends Question> questions,
+                             int from, AtomicInteger added, int retries, CompletableFuture<Integer> done) {
+        int to = Math.min(from + IMPORT_CHUNK_SIZE, questions.size());
+        List<? extends Question> chunk = questions.subList(from, to);
+        CompletableFuture<Integer> chunkDone;
+        try {
+            chunkDone = scheduler.submit(tenantId, () -> quizManager.addQuestions(chunk));
+        } catch (RejectedExecutionException e) {
+            // A full queue drains as the tenant's other work runs; an unloaded tenant never comes back
+            if (tenants.get(tenantId) == null || retries == IMPORT_MAX_RETRIES) {
+                done.completeExceptionally(new ImportFailedException(tenantId, added.get(), e));
+                return;
+            }
+            long delayMillis = Math.min(1L << Math.min(retries, 30), IMPORT_MAX_RETRY_DELAY_MILLIS);
+            CompletableFuture.runAsync(
+                    () -> importChunk(tenantId, quizManager, questions, from, added, retries + 1, done),
+                    CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS));
+            return;
+        }
+        chunkDone.whenComplete((count, error) -> {
+            if (error != null) {
+                done.completeExceptionally(new ImportFailedException(tenantId, added.get(), error));
+                return;
+            }
+            added.addAndGet(count);
+            if (to == questions.size() || budgetReached(chunk, count)) {
+                done.complete(added.get());
+            } else {
+                importChunk(tenantId, quizManager, questions, to, added, 0, done);
+            }
+        });
+    }
+
+    // True if a chunk stopped short because the budget ran out, not because of invalid questions
+    private static boolean budgetReached(List<? extends Question> chunk, int added) {
+        int valid = 0;
+        for (Question question : chunk) {
+            if (question.isValid() && ++valid > added) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stop the shared workers; all queued work is cancelled
+     */
+    @Override
+    public void close() {
+        scheduler.close();
+        tenants.clear();
+    }
+}